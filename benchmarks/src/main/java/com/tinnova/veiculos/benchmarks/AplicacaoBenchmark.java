@@ -0,0 +1,68 @@
+package com.tinnova.veiculos.benchmarks;
+
+import com.tinnova.veiculos.GerenciadorVeiculosApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Sobe a aplicação completa para os benchmarks: H2 em memória (schema pelas migrations do Flyway), porta
+// aleatória, sem Redis (spring.cache.type=none e auto-configurações do Redis fora) e sem a recarga agendada
+// da cotação durante a medição, então nenhum número depende de um Redis local ou de uma tarefa em paralelo
+final class AplicacaoBenchmark {
+
+    // A lista da linha de comando substitui a do application.properties: repete as exclusões do R2DBC
+    private static final String EXCLUSOES = String.join(",",
+            "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration",
+            "org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.redis.RedisReactiveAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration");
+
+    // Massa gerada no próprio H2: 5 marcas, 3 cores, preços de 10 mil a 100 mil dólares, 1 em cada 50 removido
+    private static final String POPULAR = """
+            INSERT INTO veiculo (id, veiculo, marca, modelo, ano, cor, placa, preco_dolar, preco_centavos,
+                                 vendido, created, updated, deleted, versao)
+            SELECT X, 'Veiculo ' || X,
+                   CASE MOD(X, 5) WHEN 0 THEN 'Toyota' WHEN 1 THEN 'Honda' WHEN 2 THEN 'Ford'
+                                  WHEN 3 THEN 'Fiat' ELSE 'Volkswagen' END,
+                   'Modelo', 2000 + MOD(X, 25),
+                   CASE MOD(X, 3) WHEN 0 THEN 'Preto' WHEN 1 THEN 'Branco' ELSE 'Prata' END,
+                   'P' || X, 10000 + MOD(X, 90000), (10000 + MOD(X, 90000)) * 100,
+                   FALSE, LOCALTIMESTAMP, LOCALTIMESTAMP, MOD(X, 50) = 0, 0
+            FROM SYSTEM_RANGE(1, ?)
+            """;
+
+    private AplicacaoBenchmark() {
+    }
+
+    // Como argumentos de linha de comando: properties() do builder são só padrões e perderiam para o
+    // application.properties (spring.cache.type=redis, spring.datasource.url). perfil "default" = nenhum
+    static ConfigurableApplicationContext iniciar(String banco, String perfil, String... propriedades) {
+        List<String> argumentos = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + banco + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--spring.cache.type=none",
+                "--spring.autoconfigure.exclude=" + EXCLUSOES,
+                "--cambio.atualizacao.intervalo-ms=86400000",
+                "--veiculos.contagem-marca.reconciliacao-ms=86400000"));
+        argumentos.addAll(Arrays.asList(propriedades));
+
+        SpringApplicationBuilder aplicacao = new SpringApplicationBuilder(GerenciadorVeiculosApplication.class);
+        if (!perfil.equals("default")) {
+            aplicacao.profiles(perfil);
+        }
+        return aplicacao.run(argumentos.toArray(String[]::new));
+    }
+
+    static void popular(ConfigurableApplicationContext contexto, int linhas) {
+        contexto.getBean(JdbcTemplate.class).update(POPULAR, linhas);
+    }
+}
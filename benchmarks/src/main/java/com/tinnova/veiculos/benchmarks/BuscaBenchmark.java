@@ -0,0 +1,68 @@
+package com.tinnova.veiculos.benchmarks;
+
+import com.tinnova.veiculos.model.Veiculo;
+import com.tinnova.veiculos.service.ConversaoCambio;
+import com.tinnova.veiculos.service.EspecificacaoVeiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+// Caminho quente da busca antes de ir ao banco: montagem da Specification e conversão dos limites de preço.
+// Mesmos passos do VeiculoService: limites convertidos pelo ConversaoCambio e filtros pelo EspecificacaoVeiculo.
+// Rodar com -prof gc mostra a alocação por operação da divisão BigDecimal frente aos centavos memorizados.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BuscaBenchmark {
+
+    private final BigDecimal cotacao = new BigDecimal("5.2534");
+    private final BigDecimal minPrecoBRL = new BigDecimal("80000.00");
+    private final BigDecimal maxPrecoBRL = new BigDecimal("150000.00");
+
+    private ConversaoCambio conversaoCambio;
+
+    @Setup
+    public void setUp() {
+        conversaoCambio = new ConversaoCambio();
+    }
+
+    @Benchmark
+    public Specification<Veiculo> specificationSemPreco() {
+        return EspecificacaoVeiculo.filtros("Toyota", 2022, "Preto", null, null);
+    }
+
+    @Benchmark
+    public Specification<Veiculo> specificationComFaixaDePreco() {
+        return EspecificacaoVeiculo.filtros("Toyota", 2022, "Preto",
+                conversaoCambio.centavosDolar(minPrecoBRL, cotacao), conversaoCambio.centavosDolar(maxPrecoBRL, cotacao));
+    }
+
+    // Conversão usada até a coluna em centavos: duas divisões BigDecimal por requisição
+    @Benchmark
+    public void converterLimitesBigDecimal(Blackhole bh) {
+        bh.consume(minPrecoBRL.divide(cotacao, 2, RoundingMode.HALF_UP));
+        bh.consume(maxPrecoBRL.divide(cotacao, 2, RoundingMode.HALF_UP));
+    }
+
+    @Benchmark
+    public void converterLimitesCentavos(Blackhole bh) {
+        bh.consume(conversaoCambio.centavosDolar(minPrecoBRL, cotacao));
+        bh.consume(conversaoCambio.centavosDolar(maxPrecoBRL, cotacao));
+    }
+}
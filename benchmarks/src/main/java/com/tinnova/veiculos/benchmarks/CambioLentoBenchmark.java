@@ -0,0 +1,142 @@
+package com.tinnova.veiculos.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tinnova.veiculos.security.JwtService;
+import com.tinnova.veiculos.service.CambioService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Rajada de GET /veiculos/busca com faixa de preço na aplicação completa, com as APIs de câmbio trocadas por um
+// stub local que responde depois de um atraso. Cada rajada começa sem cotação: as requisições esperam a mesma
+// ida à API lenta e depois vão ao banco. Compara o perfil padrão (pool do Tomcat) com o "virtual"
+// (uma virtual thread por requisição, com o pool do Hikari como limite)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CambioLentoBenchmark {
+
+    private static final int LINHAS = 10_000;
+    private static final int PAGINAS = 50;
+
+    @Param({"default", "virtual"})
+    public String perfil;
+
+    @Param({"200", "2000"})
+    public int requisicoes;
+
+    @Param({"50"})
+    public long atrasoCambioMs;
+
+    private HttpServer cambio;
+    private ConfigurableApplicationContext contexto;
+    private CambioService cambioService;
+    private HttpClient cliente;
+    private String busca;
+    private String autorizacao;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws IOException {
+        cambio = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        cambio.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        cambio.createContext("/json/last/USD-BRL", troca -> responder(troca, "[{\"bid\":\"5.25\"}]"));
+        cambio.createContext("/latest", troca -> responder(troca, "{\"rates\":{\"BRL\":5.25}}"));
+        cambio.start();
+        String urlCambio = "http://localhost:" + cambio.getAddress().getPort();
+
+        contexto = AplicacaoBenchmark.iniciar("cambio" + perfil + requisicoes, perfil,
+                "--cambio.awesomeapi.url=" + urlCambio,
+                "--cambio.frankfurter.url=" + urlCambio);
+        AplicacaoBenchmark.popular(contexto, LINHAS);
+        cambioService = contexto.getBean(CambioService.class);
+
+        autorizacao = "Bearer " + contexto.getBean(JwtService.class)
+                .generateToken(contexto.getBean(UserDetailsService.class).loadUserByUsername("user"));
+        int porta = contexto.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        busca = "http://localhost:" + porta + "/veiculos/busca?minPreco=100000&maxPreco=300000&contar=false&size=20&page=";
+        cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    // Sem cotação em memória: a próxima busca com faixa de preço espera pela API de câmbio
+    @Setup(Level.Invocation)
+    public void descartarCotacao() {
+        cambioService.descartarCotacao();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        cliente.close();
+        contexto.close();
+        cambio.stop(0);
+    }
+
+    // Tempo até a rajada inteira ser respondida
+    @Benchmark
+    public int rajadaDeBuscas() {
+        List<CompletableFuture<HttpResponse<Void>>> respostas = new ArrayList<>(requisicoes);
+        for (int i = 0; i < requisicoes; i++) {
+            HttpRequest requisicao = HttpRequest.newBuilder(URI.create(busca + (i % PAGINAS)))
+                    .header("Authorization", autorizacao)
+                    .build();
+            respostas.add(cliente.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding()));
+        }
+        int atendidas = 0;
+        for (CompletableFuture<HttpResponse<Void>> resposta : respostas) {
+            if (resposta.join().statusCode() == 200) {
+                atendidas++;
+            }
+        }
+        // Erros respondem mais rápido que buscas: uma rajada com falhas não é medida
+        if (atendidas != requisicoes) {
+            throw new IllegalStateException("Só " + atendidas + " de " + requisicoes + " buscas responderam 200");
+        }
+        return atendidas;
+    }
+
+    private void responder(HttpExchange troca, String json) throws IOException {
+        try {
+            Thread.sleep(atrasoCambioMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] corpo = json.getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", "application/json");
+        troca.sendResponseHeaders(200, corpo.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(corpo);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.tinnova.veiculos.benchmarks;
+
+import com.tinnova.veiculos.repository.ContagemMarca;
+import com.tinnova.veiculos.repository.VeiculoRepository;
+import com.tinnova.veiculos.service.VeiculoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Relatório por marca com a aplicação completa sobre H2 em memória (AplicacaoBenchmark: sem Redis nem cache):
+// o GROUP BY no banco, que cresce com a tabela, e a leitura do snapshot mantido pelo VeiculoService
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ContagemPorMarcaBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int linhas;
+
+    private ConfigurableApplicationContext contexto;
+    private VeiculoRepository veiculoRepository;
+    private VeiculoService veiculoService;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = AplicacaoBenchmark.iniciar("benchmark" + linhas, "default");
+        AplicacaoBenchmark.popular(contexto, linhas);
+        veiculoRepository = contexto.getBean(VeiculoRepository.class);
+        veiculoService = contexto.getBean(VeiculoService.class);
+        veiculoService.recarregarContagemPorMarca();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<ContagemMarca> contagemNoBanco() {
+        return veiculoRepository.countByMarca();
+    }
+
+    @Benchmark
+    public Map<String, Long> contagemPorMarca() {
+        return veiculoService.getVeiculosCountByMarca();
+    }
+}
@@ -0,0 +1,33 @@
+package com.tinnova.veiculos.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Ponto de entrada do benchmarks.jar: aceita as mesmas opções do JMH (filtro, -f, -wi, -i, -p linhas=...) e sempre
+// grava o resultado em JSON, para comparar execuções de commits diferentes (jmh.resultado define o arquivo)
+public class ExecutarBenchmarks {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Path resultado = Path.of(System.getProperty("jmh.resultado", "target/jmh-result.json"));
+        if (resultado.getParent() != null) {
+            Files.createDirectories(resultado.getParent());
+        }
+
+        Options opcoes = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultado.toString())
+                .build();
+
+        new Runner(opcoes).run();
+    }
+}
@@ -0,0 +1,85 @@
+package com.tinnova.veiculos.benchmarks;
+
+import com.tinnova.veiculos.security.JwtAuthenticationFilter;
+import com.tinnova.veiculos.security.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// JwtAuthenticationFilter de ponta a ponta: header, validação, montagem do Authentication e métricas
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+    // MockFilterChain só aceita uma chamada; aqui a cadeia seguinte não faz nada
+    private static final FilterChain CADEIA_VAZIA = (request, response) -> { };
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest comToken;
+    private MockHttpServletRequest comTokenInvalido;
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtService jwtService = new JwtService();
+        filter = new JwtAuthenticationFilter(jwtService, new SimpleMeterRegistry());
+
+        String token = jwtService.generateToken(User.builder()
+                .username("admin")
+                .password("123456")
+                .roles("ADMIN")
+                .build());
+        comToken = requisicao("Bearer " + token);
+        comTokenInvalido = requisicao("Bearer token.invalido.aqui");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication autenticarComToken() throws ServletException, IOException {
+        return filtrar(comToken);
+    }
+
+    @Benchmark
+    public Authentication rejeitarTokenInvalido() throws ServletException, IOException {
+        return filtrar(comTokenInvalido);
+    }
+
+    private Authentication filtrar(MockHttpServletRequest request) throws ServletException, IOException {
+        try {
+            // O OncePerRequestFilter remove a marca de "já filtrada" ao final, então a mesma requisição é reaproveitada
+            filter.doFilter(request, response, CADEIA_VAZIA);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static MockHttpServletRequest requisicao(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/veiculos");
+        request.addHeader("Authorization", authorization);
+        return request;
+    }
+}
@@ -0,0 +1,84 @@
+package com.tinnova.veiculos.benchmarks;
+
+import com.tinnova.veiculos.security.JwtService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+// Geração e validação de tokens no JwtService: validação com o token já verificado (cache) e a primeira
+// validação de cada token, que paga o HMAC e o parse das claims
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final int TOKENS_POR_ITERACAO = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Tokens {
+
+        UserDetails usuario;
+        String token;
+        String[] tokensNovos;
+        JwtService jwtService;
+        int proximo;
+
+        @Setup(Level.Trial)
+        public void gerarTokens() {
+            JwtService gerador = new JwtService();
+            usuario = User.builder().username("admin").password("123456").roles("ADMIN").build();
+            token = gerador.generateToken(usuario);
+            tokensNovos = new String[TOKENS_POR_ITERACAO];
+            for (int i = 0; i < tokensNovos.length; i++) {
+                tokensNovos[i] = gerador.generateToken(usuario); // jti diferente em cada um
+            }
+        }
+
+        // JwtService novo a cada iteração: o cache de tokens verificados começa vazio
+        @Setup(Level.Iteration)
+        public void novoServico() {
+            jwtService = new JwtService();
+            proximo = 0;
+        }
+    }
+
+    @Benchmark
+    public String gerarToken(Tokens tokens) {
+        return tokens.jwtService.generateToken(tokens.usuario);
+    }
+
+    @Benchmark
+    public Claims validarTokenEmCache(Tokens tokens) {
+        return tokens.jwtService.extractClaims(tokens.token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid(Tokens tokens) {
+        return tokens.jwtService.isTokenValid(tokens.token);
+    }
+
+    // Cada iteração valida uma única vez cada um dos tokens ainda não vistos por aquele JwtService
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3, batchSize = TOKENS_POR_ITERACAO)
+    @Measurement(iterations = 10, batchSize = TOKENS_POR_ITERACAO)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Claims validarTokenNovo(Tokens tokens) {
+        return tokens.jwtService.extractClaims(tokens.tokensNovos[tokens.proximo++]);
+    }
+}
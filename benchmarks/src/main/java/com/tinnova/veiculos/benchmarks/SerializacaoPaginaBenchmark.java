@@ -0,0 +1,92 @@
+package com.tinnova.veiculos.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinnova.veiculos.dto.ComPrecoReal;
+import com.tinnova.veiculos.dto.VeiculoResumo;
+import com.tinnova.veiculos.model.Veiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialização JSON de uma página da listagem: entidade completa, o resumo que a API devolve hoje e o resumo
+// com precoReal. É o custo que as páginas guardadas em RespostasSerializadas deixam de pagar a cada requisição.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacaoPaginaBenchmark {
+
+    @Param({"10", "100"})
+    public int tamanho;
+
+    private ObjectMapper objectMapper;
+    private Page<Veiculo> paginaEntidades;
+    private Page<VeiculoResumo> paginaResumos;
+    private Page<ComPrecoReal<VeiculoResumo>> paginaComPrecoReal;
+
+    @Setup
+    public void setUp() {
+        // Mesma base do ObjectMapper do Spring Boot (módulos de java.time, sem datas como timestamp)
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<Veiculo> veiculos = new ArrayList<>(tamanho);
+        for (long id = 1; id <= tamanho; id++) {
+            Veiculo v = new Veiculo();
+            v.setId(id);
+            v.setVeiculo("Corolla XEi");
+            v.setMarca("Toyota");
+            v.setModelo("Corolla");
+            v.setAno(2022);
+            v.setCor("Preto");
+            v.setPlaca("ABC" + (1000 + id));
+            v.setPrecoDolar(new BigDecimal("20000.00"));
+            v.setCreated(LocalDateTime.of(2024, 1, 1, 10, 0));
+            v.setUpdated(LocalDateTime.of(2024, 1, 1, 10, 0));
+            v.setVersao(0L);
+            veiculos.add(v);
+        }
+
+        PageRequest pageable = PageRequest.of(0, tamanho);
+        paginaEntidades = new PageImpl<>(veiculos, pageable, 10_000);
+        paginaResumos = paginaEntidades.map(v -> new VeiculoResumo(v.getId(), v.getVeiculo(), v.getMarca(), v.getModelo(),
+                v.getAno(), v.getCor(), v.getPlaca(), v.getPrecoDolar(), v.isVendido()));
+        BigDecimal cotacao = new BigDecimal("5.2534");
+        paginaComPrecoReal = paginaResumos.map(v -> ComPrecoReal.de(v, cotacao));
+    }
+
+    @Benchmark
+    public byte[] paginaDeEntidades() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(paginaEntidades);
+    }
+
+    @Benchmark
+    public byte[] paginaDeResumos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(paginaResumos);
+    }
+
+    @Benchmark
+    public byte[] paginaComPrecoReal() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(paginaComPrecoReal);
+    }
+}
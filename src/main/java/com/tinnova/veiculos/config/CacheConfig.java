@@ -0,0 +1,60 @@
+package com.tinnova.veiculos.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+@Configuration
+// Interceptor de cache por fora do transacional: o @CacheEvict só roda depois do commit,
+// e um acerto no @Cacheable nem abre transação
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+// Com spring.cache.type=none (benchmarks, ambiente sem Redis) os dois beans saem e o Spring Boot registra o
+// NoOpCacheManager: toda leitura de cache é um miss
+public class CacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis", matchIfMissing = true)
+    public CacheManagerDuasCamadas cacheManager(
+            RedisConnectionFactory connectionFactory,
+            StringRedisTemplate redisTemplate,
+            @Value("${spring.cache.redis.time-to-live:10m}") Duration ttl,
+            @Value("${veiculos.cache.local.tamanho-maximo:10000}") long tamanhoMaximoLocal
+    ) {
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig().entryTtl(ttl))
+                .build();
+        redisCacheManager.initializeCaches();
+
+        return new CacheManagerDuasCamadas(redisCacheManager, redisTemplate, ttl, tamanhoMaximoLocal);
+    }
+
+    // Recebe as invalidações publicadas pelos outros nós e descarta a camada local correspondente. O mesmo
+    // container (uma conexão de pub/sub) recebe também os eventos de veículos, registrados pelo EventoVeiculoRedis
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis", matchIfMissing = true)
+    public RedisMessageListenerContainer invalidacaoCacheListener(
+            RedisConnectionFactory connectionFactory,
+            CacheManagerDuasCamadas cacheManager
+    ) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> cacheManager.aoReceberInvalidacao(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CacheManagerDuasCamadas.CANAL_INVALIDACAO)
+        );
+        return container;
+    }
+}
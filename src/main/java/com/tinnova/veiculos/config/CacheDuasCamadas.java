@@ -0,0 +1,157 @@
+package com.tinnova.veiculos.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache com uma camada local (Caffeine) na frente do Redis.
+ * Leituras repetidas não saem do processo; gravações vão para o Redis, e remoções avisam os outros nós
+ * para descartarem a cópia local da chave.
+ */
+public class CacheDuasCamadas implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheDuasCamadas.class);
+
+    static final String TODAS_AS_CHAVES = "*";
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local;
+    private final Cache remoto;
+    private final BiConsumer<String, String> publicarInvalidacao;
+
+    public CacheDuasCamadas(
+            String name,
+            com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local,
+            Cache remoto,
+            BiConsumer<String, String> publicarInvalidacao
+    ) {
+        this.name = name;
+        this.local = local;
+        this.remoto = remoto;
+        this.publicarInvalidacao = publicarInvalidacao;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String chave = String.valueOf(key);
+        ValueWrapper valor = local.getIfPresent(chave);
+        if (valor != null) {
+            return valor;
+        }
+
+        valor = lerRemoto(key);
+        if (valor != null) {
+            local.put(chave, valor);
+        }
+        return valor;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper valor = get(key);
+        if (valor == null) {
+            return null;
+        }
+        Object conteudo = valor.get();
+        if (conteudo != null && type != null && !type.isInstance(conteudo)) {
+            throw new IllegalStateException("Valor em cache não é do tipo " + type.getName() + ": " + conteudo);
+        }
+        return (T) conteudo;
+    }
+
+    // @Cacheable(sync = true): o Caffeine trava a chave durante o cálculo, então chamadas concorrentes
+    // no mesmo nó esperam uma única ida ao Redis e, se ele não tiver o valor, um único valueLoader
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper valor = local.get(String.valueOf(key), chave -> {
+            ValueWrapper compartilhado = lerRemoto(key);
+            if (compartilhado != null) {
+                return compartilhado;
+            }
+            T carregado;
+            try {
+                carregado = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            gravarRemoto(key, carregado);
+            return new SimpleValueWrapper(carregado);
+        });
+        return (T) valor.get();
+    }
+
+    // Preenchimento depois de um miss: o valor vem da mesma fonte nos outros nós, então não há o que invalidar neles.
+    // Uma cópia local antiga em outro nó expira pelo TTL da camada local
+    @Override
+    public void put(Object key, Object value) {
+        gravarRemoto(key, value);
+        local.put(String.valueOf(key), new SimpleValueWrapper(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        String chave = String.valueOf(key);
+        try {
+            remoto.evict(key);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao remover a chave do cache '{}' no Redis", name, e);
+        }
+        local.invalidate(chave);
+        publicarInvalidacao.accept(name, chave);
+    }
+
+    @Override
+    public void clear() {
+        try {
+            remoto.clear();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao limpar o cache '{}' no Redis", name, e);
+        }
+        local.invalidateAll();
+        publicarInvalidacao.accept(name, TODAS_AS_CHAVES);
+    }
+
+    // Redis fora do ar não derruba a leitura: trata como cache miss
+    private ValueWrapper lerRemoto(Object key) {
+        try {
+            return remoto.get(key);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao ler o cache '{}' no Redis", name, e);
+            return null;
+        }
+    }
+
+    private void gravarRemoto(Object key, Object value) {
+        try {
+            remoto.put(key, value);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar o cache '{}' no Redis", name, e);
+        }
+    }
+
+    // Invalidação recebida de outro nó: só a camada local precisa ser descartada
+    void evictLocal(String chave) {
+        if (TODAS_AS_CHAVES.equals(chave)) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(chave);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.tinnova.veiculos.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Cria um CacheDuasCamadas por nome e propaga as invalidações entre os nós via pub/sub do Redis
+public class CacheManagerDuasCamadas implements CacheManager {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheManagerDuasCamadas.class);
+
+    public static final String CANAL_INVALIDACAO = "veiculos:cache:invalidacao";
+    private static final String SEPARADOR = "|";
+
+    private final RedisCacheManager redisCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttlLocal;
+    private final long tamanhoMaximoLocal;
+
+    // Identifica este nó para ignorar as próprias mensagens de invalidação
+    private final String noId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, CacheDuasCamadas> caches = new ConcurrentHashMap<>();
+
+    public CacheManagerDuasCamadas(
+            RedisCacheManager redisCacheManager,
+            StringRedisTemplate redisTemplate,
+            Duration ttlLocal,
+            long tamanhoMaximoLocal
+    ) {
+        this.redisCacheManager = redisCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.ttlLocal = ttlLocal;
+        this.tamanhoMaximoLocal = tamanhoMaximoLocal;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, nome -> new CacheDuasCamadas(
+                nome,
+                Caffeine.newBuilder()
+                        .expireAfterWrite(ttlLocal)
+                        .maximumSize(tamanhoMaximoLocal)
+                        .build(),
+                redisCacheManager.getCache(nome),
+                this::publicarInvalidacao
+        ));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    // Mensagem no formato cache|no|chave
+    public void aoReceberInvalidacao(String mensagem) {
+        String[] partes = mensagem.split("\\|", 3);
+        if (partes.length < 3 || noId.equals(partes[1])) {
+            return;
+        }
+        CacheDuasCamadas cache = caches.get(partes[0]);
+        if (cache != null) {
+            cache.evictLocal(partes[2]);
+        }
+    }
+
+    private void publicarInvalidacao(String cache, String chave) {
+        try {
+            redisTemplate.convertAndSend(CANAL_INVALIDACAO, cache + SEPARADOR + noId + SEPARADOR + chave);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao publicar a invalidação do cache '{}'", cache, e);
+        }
+    }
+}
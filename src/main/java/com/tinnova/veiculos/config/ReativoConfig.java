@@ -0,0 +1,46 @@
+package com.tinnova.veiculos.config;
+
+import com.tinnova.veiculos.repository.reativo.VeiculoLeituraRepository;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import reactor.core.Disposable;
+
+// Liga a API de leitura reativa (/veiculos/reativo). O ConnectionFactory fica dentro do template e não vira
+// bean: com um ConnectionFactory no contexto o Spring Boot não configuraria o DataSource do JPA.
+// Por isso o contexto não o fecha sozinho, e o pool (r2dbc:pool:...) é descartado aqui no encerramento
+@Configuration
+@ConditionalOnProperty(name = "veiculos.reativo.habilitado", havingValue = "true")
+@EnableR2dbcRepositories(basePackageClasses = VeiculoLeituraRepository.class)
+public class ReativoConfig {
+
+    private ConnectionFactory connectionFactory;
+
+    @Bean
+    public R2dbcEntityTemplate r2dbcEntityTemplate(
+            @Value("${veiculos.reativo.url}") String url,
+            @Value("${veiculos.reativo.usuario:}") String usuario,
+            @Value("${veiculos.reativo.senha:}") String senha
+    ) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, usuario)
+                .option(ConnectionFactoryOptions.PASSWORD, senha)
+                .build();
+        connectionFactory = ConnectionFactories.get(options);
+        return new R2dbcEntityTemplate(connectionFactory);
+    }
+
+    @PreDestroy
+    public void fecharConexoes() {
+        if (connectionFactory instanceof Disposable pool) {
+            pool.dispose();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.tinnova.veiculos.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Habilita as tarefas agendadas (ex.: atualização antecipada da cotação do dólar)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,16 +1,71 @@
 package com.tinnova.veiculos.config;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class WebClientConfig {
 
+    // Pool compartilhado pelas duas APIs de câmbio: conexões (e handshakes TLS) reaproveitadas entre chamadas
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider cambioConnectionProvider() {
+        return ConnectionProvider.builder("cambio")
+                .maxConnections(20)
+                .pendingAcquireTimeout(Duration.ofSeconds(2))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .evictInBackground(Duration.ofSeconds(60))
+                .build();
+    }
+
     @Bean("cambioWebClient")
-    public WebClient cambioWebClient(WebClient.Builder builder) {
+    public WebClient cambioWebClient(WebClient.Builder builder, ConnectionProvider cambioConnectionProvider,
+                                     @Value("${cambio.awesomeapi.url:https://economia.awesomeapi.com.br}") String url) {
+        return builder
+                .clientConnector(cambioConnector(cambioConnectionProvider))
+                .baseUrl(url)
+                .build();
+    }
+
+    @Bean("frankfurterWebClient")
+    public WebClient frankfurterWebClient(WebClient.Builder builder, ConnectionProvider cambioConnectionProvider,
+                                          @Value("${cambio.frankfurter.url:https://api.frankfurter.app}") String url) {
         return builder
-                .baseUrl("https://economia.awesomeapi.com.br")
+                .clientConnector(cambioConnector(cambioConnectionProvider))
+                .baseUrl(url)
                 .build();
     }
+
+    // Abre depois de metade das últimas 10 chamadas falharem; enquanto aberto o tráfego vai direto para o fallback
+    @Bean
+    public CircuitBreaker cambioCircuitBreaker() {
+        return CircuitBreaker.of("awesomeapi", CircuitBreakerConfig.custom()
+                .slidingWindowSize(10)
+                .minimumNumberOfCalls(5)
+                .failureRateThreshold(50)
+                .slowCallDurationThreshold(Duration.ofSeconds(2))
+                .slowCallRateThreshold(80)
+                .waitDurationInOpenState(Duration.ofSeconds(30))
+                .permittedNumberOfCallsInHalfOpenState(2)
+                .build());
+    }
+
+    private ReactorClientHttpConnector cambioConnector(ConnectionProvider connectionProvider) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 2000)
+                .responseTimeout(Duration.ofSeconds(3))
+                .doOnConnected(conn -> conn.addHandlerLast(new ReadTimeoutHandler(3, TimeUnit.SECONDS)));
+        return new ReactorClientHttpConnector(httpClient);
+    }
 }
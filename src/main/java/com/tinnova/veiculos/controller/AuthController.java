@@ -1,6 +1,9 @@
 package com.tinnova.veiculos.controller;
 
 import com.tinnova.veiculos.security.JwtService;
+import io.jsonwebtoken.JwtException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -54,6 +57,17 @@ public class AuthController {
                 "role", role
         );
     }
-}
-
 
+    // Revoga o token atual; a checagem no filtro é feita em cache local, sem I/O
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        if (authorization.startsWith("Bearer ")) {
+            try {
+                jwtService.revogar(authorization.substring(7));
+            } catch (JwtException e) {
+                // Token inválido ou expirado já não autentica ninguém
+            }
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.tinnova.veiculos.controller;
+
+import com.tinnova.veiculos.dto.VeiculoResumo;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+// Só para o OpenAPI: formato do JSON da Page de VeiculoResumo que GET /veiculos e /veiculos/busca devolvem já
+// serializado (byte[] do RespostasSerializadas), sem o que o springdoc documentaria a resposta como binário
+@Schema(name = "PaginaVeiculos")
+record PaginaVeiculos(
+        @Schema(description = "Veículos da página; com precoReal=true cada um traz também precoReal (BRL)")
+        List<VeiculoResumo> content,
+        int number,
+        int size,
+        int numberOfElements,
+        boolean first,
+        boolean last,
+        boolean empty,
+        @Schema(description = "Ausente em /veiculos/busca com contar=false", nullable = true)
+        Long totalElements,
+        @Schema(description = "Ausente em /veiculos/busca com contar=false", nullable = true)
+        Integer totalPages) {
+}
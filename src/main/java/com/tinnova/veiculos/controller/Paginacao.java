@@ -0,0 +1,77 @@
+package com.tinnova.veiculos.controller;
+
+import com.tinnova.veiculos.exception.RequisicaoInvalidaException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Converte os parâmetros page/size/sort das requisições em Sort e tamanhos seguros; valores inválidos viram 400
+final class Paginacao {
+
+    static final int TAMANHO_MAXIMO = 100;
+
+    private static final Set<String> CAMPOS_ORDENAVEIS = Set.of(
+            "id", "veiculo", "marca", "modelo", "ano", "cor", "placa", "precoDolar", "vendido", "created", "updated"
+    );
+
+    private Paginacao() {
+    }
+
+    // O offset (page * size) vai para o setFirstResult do JPA, que é int
+    static Pageable pagina(int page, int size, String[] sort) {
+        int tamanho = tamanho(size);
+        if (page < 0) {
+            throw new RequisicaoInvalidaException("O número da página não pode ser negativo.");
+        }
+        if ((long) page * tamanho > Integer.MAX_VALUE) {
+            throw new RequisicaoInvalidaException("Página fora do intervalo suportado: " + page);
+        }
+        return PageRequest.of(page, tamanho, ordenacao(sort));
+    }
+
+    static int tamanho(int size) {
+        if (size < 1) {
+            throw new RequisicaoInvalidaException("O tamanho da página deve ser maior que zero.");
+        }
+        return Math.min(size, TAMANHO_MAXIMO);
+    }
+
+    // Aceita tanto sort=marca,desc&sort=ano quanto sort=marca,desc (que o Spring quebra em ["marca", "desc"])
+    static Sort ordenacao(String[] sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        if (sort != null) {
+            for (int i = 0; i < sort.length; i++) {
+                String[] partes = sort[i].split(",");
+                String campo = partes[0].trim();
+                String direcao = partes.length > 1 ? partes[1].trim() : null;
+
+                if (direcao == null && i + 1 < sort.length && isDirecao(sort[i + 1])) {
+                    direcao = sort[++i].trim();
+                }
+                if (campo.isEmpty()) continue;
+                if (!CAMPOS_ORDENAVEIS.contains(campo)) {
+                    throw new RequisicaoInvalidaException("Campo de ordenação inválido: " + campo);
+                }
+                if (direcao != null && !isDirecao(direcao)) {
+                    throw new RequisicaoInvalidaException("Direção de ordenação inválida: " + direcao);
+                }
+                orders.add(new Sort.Order(direcao == null ? Sort.Direction.ASC : Sort.Direction.fromString(direcao), campo));
+            }
+        }
+
+        // Desempate por id para a ordem ser estável entre páginas
+        if (orders.stream().noneMatch(o -> o.getProperty().equals("id"))) {
+            orders.add(Sort.Order.asc("id"));
+        }
+        return Sort.by(orders);
+    }
+
+    private static boolean isDirecao(String valor) {
+        String v = valor.trim();
+        return v.equalsIgnoreCase("asc") || v.equalsIgnoreCase("desc");
+    }
+}
@@ -0,0 +1,58 @@
+package com.tinnova.veiculos.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+// Páginas de listagem/busca já serializadas em JSON, por consulta e versão (dados da coleção + cotação, a mesma
+// do ETag). Consultas iguais entre duas escritas ou trocas de cotação saem da memória sem consultar nem
+// serializar; uma versão nova muda a chave, então as entradas antigas só envelhecem e saem pelo tamanho/tempo.
+@Component
+class RespostasSerializadas {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Chave, byte[]> cache;
+
+    RespostasSerializadas(ObjectMapper objectMapper,
+                          @Value("${veiculos.respostas.cache.tamanho:500}") long tamanho) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanho)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    // consulta: endpoint e todos os parâmetros que mudam o corpo (nulos inclusive), na ordem em que o handler os recebe
+    Optional<byte[]> buscar(List<?> consulta, String versao) {
+        return Optional.ofNullable(cache.getIfPresent(new Chave(consulta, versao)));
+    }
+
+    byte[] guardar(List<?> consulta, String versao, Object corpo) {
+        byte[] json = serializar(corpo);
+        cache.put(new Chave(consulta, versao), json);
+        return json;
+    }
+
+    void limpar() {
+        cache.invalidateAll();
+    }
+
+    private byte[] serializar(Object corpo) {
+        try {
+            return objectMapper.writeValueAsBytes(corpo);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Chave(List<?> consulta, String versao) {
+    }
+}
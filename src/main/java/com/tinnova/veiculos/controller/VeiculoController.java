@@ -1,23 +1,60 @@
 package com.tinnova.veiculos.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinnova.veiculos.dto.ComPrecoReal;
+import com.tinnova.veiculos.dto.EventoVeiculo;
+import com.tinnova.veiculos.dto.PaginaAlteracoes;
+import com.tinnova.veiculos.dto.PaginaCursor;
+import com.tinnova.veiculos.dto.ResultadoImportacao;
+import com.tinnova.veiculos.dto.VeiculoDetalhe;
+import com.tinnova.veiculos.dto.VeiculoResumo;
+import com.tinnova.veiculos.exception.RequisicaoInvalidaException;
+import com.tinnova.veiculos.exception.ValidationException;
 import com.tinnova.veiculos.model.Veiculo;
+import com.tinnova.veiculos.repository.VersaoColecao;
+import com.tinnova.veiculos.service.ConversaoCambio;
+import com.tinnova.veiculos.service.EventoVeiculoService;
+import com.tinnova.veiculos.service.FormatoExportacao;
+import com.tinnova.veiculos.service.VeiculoCsv;
+import com.tinnova.veiculos.service.VeiculoJson;
 import com.tinnova.veiculos.service.VeiculoService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/veiculos")
@@ -27,38 +64,176 @@ public class VeiculoController {
     @Autowired
     private VeiculoService veiculoService;
 
+    @Autowired
+    private EventoVeiculoService eventoVeiculoService;
+
+    @Autowired
+    private RespostasSerializadas respostasSerializadas;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // GET /veiculos
     @GetMapping
-    @Operation(summary = "Retorna todos os veículos com paginação e ordenação (USER/ADMIN)")
-    public ResponseEntity<Page<Veiculo>> getAllVeiculos(
+    @Operation(summary = "Retorna todos os veículos com paginação e ordenação; precoReal=true inclui o preço em BRL (USER/ADMIN)")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            schema = @Schema(implementation = PaginaVeiculos.class)))
+    public ResponseEntity<byte[]> getAllVeiculos(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,asc") String[] sort,
+            @RequestParam(defaultValue = "false") boolean precoReal,
+            WebRequest request) {
+        Pageable pageable = Paginacao.pagina(page, size, sort);
+        VersaoColecao versao = veiculoService.findVersaoColecao();
+        BigDecimal cotacao = precoReal ? veiculoService.getCotacaoDolar() : null;
+        String tag = VersaoHttp.comCotacao(versao.tag(), cotacao);
+        // Com precoReal o Last-Modified não cobre a troca de cotação; fica só o ETag
+        long lastModified = cotacao == null ? VersaoHttp.lastModified(versao.ultimaAlteracao()) : -1;
+        if (request.checkNotModified(VersaoHttp.etag(tag), lastModified)) {
+            return null; // 304 sem consultar nem serializar a página
+        }
+        List<?> consulta = Arrays.asList("veiculos", pageable, precoReal);
+        byte[] corpo = respostasSerializadas.buscar(consulta, tag).orElseGet(() -> {
+            Page<VeiculoResumo> veiculos = veiculoService.findVeiculosWithPaginationAndSorting(pageable);
+            return respostasSerializadas.guardar(consulta, tag,
+                    cotacao == null ? veiculos : veiculos.map(v -> ComPrecoReal.de(v, cotacao)));
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(corpo);
+    }
+
+    // GET /veiculos?after={id}&size={size} - paginação por cursor, sem OFFSET nem COUNT(*).
+    // A primeira página vai com after vazio (?after=): começa do menor id, ou do maior com sort=id,desc
+    @GetMapping(params = "after")
+    @Operation(summary = "Retorna veículos a partir de um cursor (id), sem contagem total; after vazio busca a primeira página (USER/ADMIN)")
+    public ResponseEntity<PaginaCursor<VeiculoResumo>> getVeiculosAfter(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id,asc") String[] sort) {
-        // Lógica para processar o parâmetro de ordenação 'sort'
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Veiculo> veiculos = veiculoService.findVeiculosWithPaginationAndSorting(pageable);
+        Sort.Order ordem = Paginacao.ordenacao(sort).iterator().next();
+        if (!ordem.getProperty().equals("id")) {
+            throw new ValidationException("A paginação por cursor suporta apenas ordenação por id.");
+        }
+        PaginaCursor<VeiculoResumo> veiculos =
+                veiculoService.findVeiculosAfter(after, Paginacao.tamanho(size), ordem.isDescending());
         return ResponseEntity.ok(veiculos);
     }
 
+    // GET /veiculos/changes?since={alteracao}&afterId={id} - feed incremental para sincronização
+    @GetMapping("/changes")
+    @Operation(summary = "Retorna veículos criados, alterados ou removidos desde o cursor (since, afterId) (USER/ADMIN)")
+    public ResponseEntity<PaginaAlteracoes> getAlteracoes(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "100") int size) {
+        // Sem since, a primeira chamada percorre desde o início (sincronização completa)
+        return ResponseEntity.ok(veiculoService.findAlteracoes(since, afterId, Paginacao.tamanho(size)));
+    }
+
     // GET /veiculos?marca={marca}&ano={ano}&cor={cor} e GET /veiculos?minPreco={valorMaximo}&maxPreco={valorMinimo}
     @GetMapping("/busca")
-    @Operation(summary = "Busca veículos por filtros combinados e range de preço (USER/ADMIN)")
-    public ResponseEntity<List<Veiculo>> searchVeiculos(
+    @Operation(summary = "Busca veículos por filtros combinados e range de preço, paginada; contar=false dispensa o total, precoReal=true inclui o preço em BRL (USER/ADMIN)")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            schema = @Schema(implementation = PaginaVeiculos.class)))
+    public Mono<ResponseEntity<byte[]>> searchVeiculos(
             @RequestParam(required = false) String marca,
             @RequestParam(required = false) Integer ano,
             @RequestParam(required = false) String cor,
             @RequestParam(required = false) BigDecimal minPreco,
-            @RequestParam(required = false) BigDecimal maxPreco) {
-        List<Veiculo> veiculos = veiculoService.searchVeiculos(marca, ano, cor, minPreco, maxPreco);
-        return ResponseEntity.ok(veiculos);
+            @RequestParam(required = false) BigDecimal maxPreco,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,asc") String[] sort,
+            @RequestParam(defaultValue = "true") boolean contar,
+            @RequestParam(defaultValue = "false") boolean precoReal,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        validarPreco("minPreco", minPreco);
+        validarPreco("maxPreco", maxPreco);
+        Pageable pageable = Paginacao.pagina(page, size, sort);
+        List<?> consulta = Arrays.asList("busca", marca, ano, cor, minPreco, maxPreco, pageable, contar, precoReal);
+        Mono<Optional<BigDecimal>> cotacao = precoReal
+                ? veiculoService.getCotacaoDolarAsync().map(Optional::of)
+                : Mono.just(Optional.empty());
+
+        // Retorno assíncrono: a thread do Tomcat é liberada enquanto a cotação do dólar é buscada
+        return veiculoService.versaoBusca(minPreco, maxPreco)
+                .zipWith(cotacao)
+                .flatMap(versao -> {
+                    BigDecimal cotacaoDolar = versao.getT2().orElse(null);
+                    String tag = VersaoHttp.comCotacao(versao.getT1(), cotacaoDolar);
+                    String etag = VersaoHttp.etag(tag);
+                    if (VersaoHttp.naoModificado(ifNoneMatch, etag)) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<byte[]>build());
+                    }
+                    return Mono.justOrEmpty(respostasSerializadas.buscar(consulta, tag))
+                            .switchIfEmpty(Mono.defer(() -> veiculoService
+                                    .searchVeiculosAsync(marca, ano, cor, minPreco, maxPreco, pageable, contar)
+                                    .map(veiculos -> respostasSerializadas.guardar(consulta, tag, cotacaoDolar == null
+                                            ? veiculos
+                                            : veiculos.map(v -> ComPrecoReal.de(v, cotacaoDolar))))))
+                            .map(corpo -> ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(corpo));
+                });
+    }
+
+    // GET /veiculos/exportacao?formato=ndjson|csv
+    @GetMapping("/exportacao")
+    @Operation(summary = "Exporta todos os veículos em NDJSON ou CSV, em streaming (USER/ADMIN)")
+    public ResponseEntity<StreamingResponseBody> exportarVeiculos(
+            @RequestParam(defaultValue = "ndjson") String formato) {
+        FormatoExportacao formatoExportacao = FormatoExportacao.de(formato);
+        StreamingResponseBody corpo = saida -> veiculoService.exportarVeiculos(formatoExportacao, saida);
+        return ResponseEntity.ok()
+                .contentType(formatoExportacao.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=veiculos." + formatoExportacao.getExtensao())
+                .body(corpo);
+    }
+
+    // GET /veiculos/eventos - Server-Sent Events com as escritas de veículos (criação, alteração, venda, remoção).
+    // Numa reconexão, Last-Event-ID faz o stream reenviar antes o que mudou desde aquele evento.
+    // Sem timeout só aqui (SseEmitter(0)): o stream fica aberto enquanto o cliente estiver conectado, e o
+    // spring.mvc.async.request-timeout continua valendo para as demais respostas assíncronas
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Transmite as alterações de veículos em tempo real via SSE; Last-Event-ID retoma de onde parou (USER/ADMIN)")
+    public SseEmitter streamEventos(
+            @RequestHeader(value = "Last-Event-ID", required = false) String ultimoEventoId) {
+        SseEmitter emitter = new SseEmitter(0L);
+        // O envio bloqueia enquanto o cliente lê: fica fora da thread que emitiu o evento (a do commit)
+        Disposable assinatura = eventoVeiculoService.assinar(ultimoEventoId)
+                .publishOn(Schedulers.boundedElastic())
+                .subscribe(evento -> enviar(emitter, evento), emitter::completeWithError, emitter::complete);
+        emitter.onCompletion(assinatura::dispose);
+        emitter.onError(erro -> assinatura.dispose());
+        return emitter;
+    }
+
+    private static void enviar(SseEmitter emitter, ServerSentEvent<EventoVeiculo> sse) {
+        SseEmitter.SseEventBuilder evento = SseEmitter.event();
+        if (sse.id() != null) evento.id(sse.id());
+        if (sse.event() != null) evento.name(sse.event());
+        if (sse.comment() != null) evento.comment(sse.comment());
+        if (sse.data() != null) evento.data(sse.data(), MediaType.APPLICATION_JSON);
+        try {
+            emitter.send(evento);
+        } catch (IOException e) {
+            // Cliente desconectado: a exceção encerra a assinatura
+            throw new UncheckedIOException(e);
+        }
     }
 
     // GET /veiculos/{id}
     @GetMapping("/{id}")
-    @Operation(summary = "Retorna os detalhes do veículo por ID (USER/ADMIN)")
-    public ResponseEntity<Veiculo> getVeiculoById(@PathVariable Long id) {
-        Veiculo veiculo = veiculoService.findVeiculoById(id);
-        return ResponseEntity.ok(veiculo);
+    @Operation(summary = "Retorna os detalhes do veículo por ID; precoReal=true inclui o preço em BRL (USER/ADMIN)")
+    public ResponseEntity<Object> getVeiculoById(@PathVariable Long id,
+                                                 @RequestParam(defaultValue = "false") boolean precoReal,
+                                                 WebRequest request) {
+        // O detalhe vem do cache; com o ETag/Last-Modified batendo, responde 304 sem serializar
+        VeiculoDetalhe veiculo = veiculoService.findVeiculoDetalheById(id);
+        BigDecimal cotacao = precoReal ? veiculoService.getCotacaoDolar() : null;
+        long lastModified = cotacao == null ? VersaoHttp.lastModified(veiculo.updated()) : -1;
+        if (request.checkNotModified(VersaoHttp.etag(veiculo, cotacao), lastModified)) {
+            return null;
+        }
+        return ResponseEntity.ok(cotacao == null ? veiculo : ComPrecoReal.de(veiculo, cotacao));
     }
 
     // POST /veiculos (somente ADMIN)
@@ -71,6 +246,29 @@ public class VeiculoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    // POST /veiculos/importacao (somente ADMIN) - lista JSON lida em streaming, elemento a elemento
+    @PostMapping(value = "/importacao", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Importa veículos em massa a partir de uma lista JSON (Somente ADMIN)", security = @SecurityRequirement(name = "bearerAuth"))
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            array = @ArraySchema(schema = @Schema(implementation = Veiculo.class))))
+    public ResponseEntity<ResultadoImportacao> importarVeiculos(HttpServletRequest request) throws IOException {
+        try (InputStream entrada = request.getInputStream()) {
+            return ResponseEntity.ok(veiculoService.importarVeiculos(VeiculoJson.ler(objectMapper, entrada)));
+        }
+    }
+
+    // POST /veiculos/importacao (somente ADMIN) - CSV lido em streaming
+    @PostMapping(value = "/importacao", consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Importa veículos em massa a partir de um CSV com cabeçalho (Somente ADMIN)", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ResultadoImportacao> importarVeiculosCsv(HttpServletRequest request) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            return ResponseEntity.ok(veiculoService.importarVeiculos(VeiculoCsv.ler(reader)));
+        }
+    }
+
     // PUT /veiculos/{id} (somente ADMIN)
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -85,9 +283,8 @@ public class VeiculoController {
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Atualiza parcialmente os dados de um veículo (Somente ADMIN)", security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<Veiculo> patchVeiculo(@PathVariable Long id, @RequestBody Map<String, Object> fields) {
-        // Implementar lógica de aplicação parcial de campos, similar ao PUT mas com reflexão ou DTOs específicos.
-        // Este é um esqueleto, a lógica real requer mais detalhes.
-        return ResponseEntity.ok(veiculoService.findVeiculoById(id));
+        Veiculo patched = veiculoService.patchVeiculo(id, fields);
+        return ResponseEntity.ok(patched);
     }
 
     // DELETE /veiculos/{id} (somente ADMIN)
@@ -102,8 +299,20 @@ public class VeiculoController {
     // GET /veiculos/relatorios/por-marca
     @GetMapping("/relatorios/por-marca")
     @Operation(summary = "Retorna relatório de quantidade de veículos agrupados por marca (USER/ADMIN)")
-    public ResponseEntity<Map<String, Long>> getVeiculosCountByMarca() {
+    public ResponseEntity<Map<String, Long>> getVeiculosCountByMarca(WebRequest request) {
+        VersaoColecao versao = veiculoService.findVersaoColecao();
+        if (request.checkNotModified(VersaoHttp.etag(versao.tag()), VersaoHttp.lastModified(versao.ultimaAlteracao()))) {
+            return null;
+        }
         Map<String, Long> report = veiculoService.getVeiculosCountByMarca();
         return ResponseEntity.ok(report);
     }
+
+    // Limites que não cabem em centavos (long) são rejeitados antes de buscar a cotação
+    private static void validarPreco(String parametro, BigDecimal valor) {
+        if (valor != null && valor.abs().compareTo(ConversaoCambio.VALOR_MAXIMO) > 0) {
+            throw new RequisicaoInvalidaException("Valor fora do intervalo suportado para " + parametro + ": "
+                    + valor.toPlainString());
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package com.tinnova.veiculos.controller;
+
+import com.tinnova.veiculos.dto.VeiculoDetalhe;
+import com.tinnova.veiculos.dto.VeiculoResumo;
+import com.tinnova.veiculos.service.VeiculoReativoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+// API de leitura reativa, ligada com veiculos.reativo.habilitado=true. A thread da requisição é liberada
+// logo ao devolver o Mono; a resposta é escrita quando o R2DBC e a cotação terminam
+@RestController
+@RequestMapping("/veiculos/reativo")
+@ConditionalOnProperty(name = "veiculos.reativo.habilitado", havingValue = "true")
+@Tag(name = "Veículos API reativa", description = "Consultas de veículos sem bloqueio (R2DBC)")
+public class VeiculoReativoController {
+
+    @Autowired
+    private VeiculoReativoService veiculoReativoService;
+
+    // GET /veiculos/reativo
+    @GetMapping
+    @Operation(summary = "Retorna os veículos paginados via R2DBC (USER/ADMIN)")
+    public Mono<Page<VeiculoResumo>> getAllVeiculos(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,asc") String[] sort) {
+        return veiculoReativoService.findVeiculos(Paginacao.pagina(page, size, sort));
+    }
+
+    // GET /veiculos/reativo/busca
+    @GetMapping("/busca")
+    @Operation(summary = "Busca veículos por filtros e range de preço via R2DBC (USER/ADMIN)")
+    public Mono<Page<VeiculoResumo>> searchVeiculos(
+            @RequestParam(required = false) String marca,
+            @RequestParam(required = false) Integer ano,
+            @RequestParam(required = false) String cor,
+            @RequestParam(required = false) BigDecimal minPreco,
+            @RequestParam(required = false) BigDecimal maxPreco,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,asc") String[] sort) {
+        return veiculoReativoService.searchVeiculos(marca, ano, cor, minPreco, maxPreco,
+                Paginacao.pagina(page, size, sort));
+    }
+
+    // GET /veiculos/reativo/{id}
+    @GetMapping("/{id}")
+    @Operation(summary = "Retorna os detalhes do veículo por ID via R2DBC (USER/ADMIN)")
+    public Mono<VeiculoDetalhe> getVeiculoById(@PathVariable Long id) {
+        return veiculoReativoService.findVeiculoById(id);
+    }
+
+    // GET /veiculos/reativo/relatorios/por-marca
+    @GetMapping("/relatorios/por-marca")
+    @Operation(summary = "Retorna a quantidade de veículos por marca via R2DBC (USER/ADMIN)")
+    public Mono<Map<String, Long>> getVeiculosCountByMarca() {
+        return veiculoReativoService.getVeiculosCountByMarca();
+    }
+}
@@ -0,0 +1,48 @@
+package com.tinnova.veiculos.controller;
+
+import com.tinnova.veiculos.dto.VeiculoDetalhe;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+// ETag e Last-Modified das respostas de leitura, para GETs condicionais responderem 304 sem corpo
+final class VersaoHttp {
+
+    private VersaoHttp() {
+    }
+
+    static String etag(VeiculoDetalhe veiculo) {
+        return etag(veiculo, null);
+    }
+
+    static String etag(VeiculoDetalhe veiculo, BigDecimal cotacaoDolar) {
+        return etag(comCotacao(veiculo.id() + "-" + veiculo.versao(), cotacaoDolar));
+    }
+
+    // Respostas com precoReal dependem também da cotação: ela entra na versão (e portanto no ETag)
+    static String comCotacao(String versao, BigDecimal cotacaoDolar) {
+        return cotacaoDolar == null ? versao : versao + "-brl" + cotacaoDolar.toPlainString();
+    }
+
+    static String etag(String versao) {
+        return "\"" + versao + "\"";
+    }
+
+    // -1 faz o checkNotModified ignorar o Last-Modified
+    static long lastModified(LocalDateTime dataHora) {
+        return dataHora == null ? -1 : dataHora.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // Comparação do If-None-Match para os handlers assíncronos, onde o WebRequest não pode ser usado fora da thread do Tomcat
+    static boolean naoModificado(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(etag));
+    }
+}
@@ -0,0 +1,11 @@
+package com.tinnova.veiculos.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Item do feed de alterações. CRIADO só aparece enquanto o veículo nunca foi alterado (versao = 0);
+// quem sincroniza deve tratar CRIADO e ATUALIZADO como upsert e REMOVIDO como exclusão.
+// alteracao é o número da transação que gravou o item; updated fica só como informação
+public record AlteracaoVeiculo(TipoAlteracao tipo, Long id, String veiculo, String marca, String modelo, Integer ano,
+                               String cor, String placa, BigDecimal precoDolar, boolean vendido,
+                               LocalDateTime updated, Long versao, long alteracao) {}
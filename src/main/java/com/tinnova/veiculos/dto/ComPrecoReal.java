@@ -0,0 +1,24 @@
+package com.tinnova.veiculos.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Veículo (resumo ou detalhe) com o preço convertido para reais pela cotação do momento; os campos do veículo
+// saem no mesmo nível de precoReal, então quem não usa o campo novo lê a resposta como antes
+public record ComPrecoReal<T>(@JsonUnwrapped T veiculo, BigDecimal precoReal) {
+
+    public static ComPrecoReal<VeiculoResumo> de(VeiculoResumo veiculo, BigDecimal cotacaoDolar) {
+        return new ComPrecoReal<>(veiculo, emReais(veiculo.precoDolar(), cotacaoDolar));
+    }
+
+    public static ComPrecoReal<VeiculoDetalhe> de(VeiculoDetalhe veiculo, BigDecimal cotacaoDolar) {
+        return new ComPrecoReal<>(veiculo, emReais(veiculo.precoDolar(), cotacaoDolar));
+    }
+
+    // USD -> BRL é só uma multiplicação (o caminho caro, a divisão, fica nos filtros da busca)
+    private static BigDecimal emReais(BigDecimal precoDolar, BigDecimal cotacaoDolar) {
+        return precoDolar == null ? null : precoDolar.multiply(cotacaoDolar).setScale(2, RoundingMode.HALF_UP);
+    }
+}
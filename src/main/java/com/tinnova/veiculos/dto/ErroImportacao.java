@@ -0,0 +1,5 @@
+package com.tinnova.veiculos.dto;
+
+// Registro rejeitado na importação; linha é a posição do registro no arquivo (1 = primeiro veículo), não a
+// linha física do CSV, e é a única numeração usada nas mensagens de erro
+public record ErroImportacao(int linha, String placa, String mensagem) {}
@@ -0,0 +1,7 @@
+package com.tinnova.veiculos.dto;
+
+import java.time.Instant;
+
+// Evento publicado pelo VeiculoService a cada escrita e repassado aos clientes conectados em /veiculos/eventos.
+// alteracao é o número da transação (o mesmo cursor do feed /veiculos/changes)
+public record EventoVeiculo(TipoEvento tipo, VeiculoResumo veiculo, Instant ocorridoEm, long alteracao) {}
@@ -0,0 +1,7 @@
+package com.tinnova.veiculos.dto;
+
+import java.util.List;
+
+// Página do feed de alterações: (nextSince, nextAfterId) é o cursor da próxima chamada
+public record PaginaAlteracoes(List<AlteracaoVeiculo> content, int size, long nextSince, Long nextAfterId,
+                               boolean hasNext) {}
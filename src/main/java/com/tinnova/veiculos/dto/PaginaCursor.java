@@ -0,0 +1,6 @@
+package com.tinnova.veiculos.dto;
+
+import java.util.List;
+
+// Página da paginação por cursor (keyset): não há total nem COUNT(*), só o cursor para a próxima chamada
+public record PaginaCursor<T>(List<T> content, int size, Long nextCursor, boolean hasNext) {}
@@ -0,0 +1,5 @@
+package com.tinnova.veiculos.dto;
+
+import java.util.List;
+
+public record ResultadoImportacao(int total, int importados, List<ErroImportacao> erros) {}
@@ -0,0 +1,7 @@
+package com.tinnova.veiculos.dto;
+
+public enum TipoAlteracao {
+    CRIADO,
+    ATUALIZADO,
+    REMOVIDO
+}
@@ -0,0 +1,8 @@
+package com.tinnova.veiculos.dto;
+
+public enum TipoEvento {
+    CRIADO,
+    ATUALIZADO,
+    VENDIDO,
+    REMOVIDO
+}
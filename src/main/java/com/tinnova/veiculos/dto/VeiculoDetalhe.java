@@ -0,0 +1,11 @@
+package com.tinnova.veiculos.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Projeção de leitura do detalhe (GET /veiculos/{id}): inclui as datas de criação e alteração e a versão, mas não o flag de soft delete.
+// Serializable porque é o valor guardado no cache "veiculos" (Redis).
+public record VeiculoDetalhe(Long id, String veiculo, String marca, String modelo, Integer ano, String cor,
+                             String placa, BigDecimal precoDolar, boolean vendido,
+                             LocalDateTime created, LocalDateTime updated, Long versao) implements Serializable {}
@@ -0,0 +1,7 @@
+package com.tinnova.veiculos.dto;
+
+import java.math.BigDecimal;
+
+// Projeção de leitura para listagens e buscas: montada direto na consulta, sem entidade gerenciada nem snapshot de dirty-checking
+public record VeiculoResumo(Long id, String veiculo, String marca, String modelo, Integer ano, String cor,
+                            String placa, BigDecimal precoDolar, boolean vendido) {}
@@ -1,6 +1,8 @@
 package com.tinnova.veiculos.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -16,6 +18,29 @@ public class GlobalExceptionHandler {
         return Map.of("error", ex.getMessage());
     }
 
+    @ExceptionHandler(RequisicaoInvalidaException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleRequisicaoInvalida(RequisicaoInvalidaException ex) {
+        return Map.of("error", ex.getMessage());
+    }
+
+    // O Jackson embrulha o que os setters lançam (ex.: Veiculo.setPrecoDolar com preço fora do intervalo)
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleCorpoInvalido(HttpMessageNotReadableException ex) {
+        Throwable causa = ex.getCause();
+        while (causa != null && !(causa instanceof RequisicaoInvalidaException)) {
+            causa = causa.getCause();
+        }
+        return Map.of("error", causa != null ? causa.getMessage() : "Corpo da requisição inválido.");
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleOptimisticLocking(OptimisticLockingFailureException ex) {
+        return Map.of("error", "O veículo foi alterado por outra requisição. Recarregue e tente novamente.");
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public Map<String, String> handleNotFound(ResourceNotFoundException ex) {
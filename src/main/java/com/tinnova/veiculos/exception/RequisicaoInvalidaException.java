@@ -0,0 +1,14 @@
+package com.tinnova.veiculos.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Parâmetro ou corpo que a API não aceita (valor fora do intervalo, formato inválido): 400, ao contrário da
+// ValidationException, que o GlobalExceptionHandler responde com 409 (conflito com o estado atual)
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class RequisicaoInvalidaException extends RuntimeException {
+
+    public RequisicaoInvalidaException(String message) {
+        super(message);
+    }
+}
@@ -1,22 +1,31 @@
 package com.tinnova.veiculos.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.tinnova.veiculos.exception.RequisicaoInvalidaException;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Data;
-import org.hibernate.annotations.SQLDelete;
+import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.Where;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(name = "veiculo") // Índices ficam só nas migrations (db/migration/{vendor}); o Hibernate apenas valida o schema
 @Data // Lombok para getters/setters
-@SQLDelete(sql = "UPDATE veiculo SET deleted = true WHERE id=?")
+@DynamicUpdate // UPDATE só com as colunas alteradas (PATCH de um campo não regrava a linha inteira)
 @Where(clause = "deleted = false")
 public class Veiculo implements Serializable {
 
+    // Sequence com pooled optimizer: ids reservados de 50 em 50, o que permite ao Hibernate agrupar os INSERTs
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "veiculo_seq")
+    @SequenceGenerator(name = "veiculo_seq", sequenceName = "veiculo_seq", allocationSize = 50)
     private Long id;
     private String veiculo;
     private String marca;
@@ -25,11 +34,40 @@ public class Veiculo implements Serializable {
     private String cor;
     private String placa; // Adicione um campo de placa para a validação de duplicidade
     private BigDecimal precoDolar; // Armazenado em dólar, conforme o desafio
+
+    // Mesmo preço em centavos de dólar, para os filtros de faixa compararem inteiros; mantido por setPrecoDolar
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private Long precoCentavos;
+
     private boolean vendido;
     private LocalDateTime created;
     private LocalDateTime updated;
     private boolean deleted = Boolean.FALSE; // Campo para soft delete
 
+    // Locking otimista: o UPDATE leva "WHERE versao = ?" e falha se outra requisição alterou o veículo antes
+    @Version
+    private Long versao;
+
+    // Número da última transação que gravou o veículo (seq_alteracao): cursor do feed de alterações.
+    // Atribuído pelo VeiculoService em toda escrita; nunca vem do corpo da requisição
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long alteracao;
+
+    public void setPrecoDolar(BigDecimal precoDolar) {
+        if (precoDolar == null) {
+            this.precoDolar = null;
+            this.precoCentavos = null;
+            return;
+        }
+        try {
+            this.precoCentavos = precoDolar.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new RequisicaoInvalidaException("Preço fora do intervalo suportado: " + precoDolar.toPlainString());
+        }
+        this.precoDolar = precoDolar;
+    }
+
     @PrePersist
     protected void onCreate() {
         created = LocalDateTime.now();
@@ -40,4 +78,11 @@ public class Veiculo implements Serializable {
     protected void onUpdate() {
         updated = LocalDateTime.now();
     }
+
+    // Soft delete é um UPDATE feito pelo VeiculoService (deleted = true com o número de alteração da transação);
+    // um remove pelo repositório apagaria a linha sem que o feed de alterações visse a remoção
+    @PreRemove
+    protected void onRemove() {
+        throw new UnsupportedOperationException("Veículos são removidos logicamente pelo VeiculoService");
+    }
 }
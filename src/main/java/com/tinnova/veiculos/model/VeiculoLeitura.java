@@ -0,0 +1,25 @@
+package com.tinnova.veiculos.model;
+
+import com.tinnova.veiculos.dto.VeiculoDetalhe;
+import com.tinnova.veiculos.dto.VeiculoResumo;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Mapeamento R2DBC (somente leitura) da tabela veiculo para a API reativa; as escritas continuam no JPA (Veiculo).
+// Sem @Where aqui: os filtros de deleted = false ficam explícitos nas consultas
+@Table("veiculo")
+public record VeiculoLeitura(@Id Long id, String veiculo, String marca, String modelo, Integer ano, String cor,
+                             String placa, BigDecimal precoDolar, Long precoCentavos, boolean vendido, LocalDateTime created,
+                             LocalDateTime updated, boolean deleted, Long versao) {
+
+    public VeiculoResumo toResumo() {
+        return new VeiculoResumo(id, veiculo, marca, modelo, ano, cor, placa, precoDolar, vendido);
+    }
+
+    public VeiculoDetalhe toDetalhe() {
+        return new VeiculoDetalhe(id, veiculo, marca, modelo, ano, cor, placa, precoDolar, vendido, created, updated, versao);
+    }
+}
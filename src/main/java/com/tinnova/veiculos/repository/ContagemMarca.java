@@ -0,0 +1,4 @@
+package com.tinnova.veiculos.repository;
+
+// Linha do relatório por marca, preenchida direto pelo GROUP BY do banco
+public record ContagemMarca(String marca, Long total) {}
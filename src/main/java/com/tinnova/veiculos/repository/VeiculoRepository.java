@@ -1,14 +1,78 @@
 package com.tinnova.veiculos.repository;
 
+import com.tinnova.veiculos.dto.VeiculoDetalhe;
+import com.tinnova.veiculos.dto.VeiculoResumo;
 import com.tinnova.veiculos.model.Veiculo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface VeiculoRepository extends JpaRepository<Veiculo, Long>, JpaSpecificationExecutor<Veiculo> {
+public interface VeiculoRepository extends JpaRepository<Veiculo, Long>, JpaSpecificationExecutor<Veiculo>, VeiculoRepositoryCustom {
     boolean existsByPlacaAndDeletedFalse(String placa);
     Optional<Veiculo> findByIdAndDeletedFalse(Long id);
+
+    // Leituras projetadas em DTO (SELECT new): nenhuma entidade entra no contexto de persistência
+    @Query(value = "SELECT new com.tinnova.veiculos.dto.VeiculoResumo(v.id, v.veiculo, v.marca, v.modelo, v.ano, v.cor, v.placa, "
+            + "v.precoDolar, v.vendido) FROM Veiculo v",
+            countQuery = "SELECT COUNT(v) FROM Veiculo v")
+    Page<VeiculoResumo> findResumos(Pageable pageable);
+
+    @Query("SELECT new com.tinnova.veiculos.dto.VeiculoDetalhe(v.id, v.veiculo, v.marca, v.modelo, v.ano, v.cor, v.placa, "
+            + "v.precoDolar, v.vendido, v.created, v.updated, v.versao) FROM Veiculo v WHERE v.id = :id")
+    Optional<VeiculoDetalhe> findDetalheById(@Param("id") Long id);
+
+    // Paginação por cursor: retorno em List faz o Spring Data aplicar só o LIMIT, sem COUNT(*)
+    @Query("SELECT new com.tinnova.veiculos.dto.VeiculoResumo(v.id, v.veiculo, v.marca, v.modelo, v.ano, v.cor, v.placa, "
+            + "v.precoDolar, v.vendido) FROM Veiculo v WHERE v.id > :id ORDER BY v.id ASC")
+    List<VeiculoResumo> findResumosAfter(@Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT new com.tinnova.veiculos.dto.VeiculoResumo(v.id, v.veiculo, v.marca, v.modelo, v.ano, v.cor, v.placa, "
+            + "v.precoDolar, v.vendido) FROM Veiculo v WHERE v.id < :id ORDER BY v.id DESC")
+    List<VeiculoResumo> findResumosBefore(@Param("id") Long id, Pageable pageable);
+
+    // Linhas de uma página já resolvida pelo IndiceVeiculos
+    @Query("SELECT new com.tinnova.veiculos.dto.VeiculoResumo(v.id, v.veiculo, v.marca, v.modelo, v.ano, v.cor, v.placa, "
+            + "v.precoDolar, v.vendido) FROM Veiculo v WHERE v.id IN :ids ORDER BY v.id")
+    List<VeiculoResumo> findResumosByIds(@Param("ids") Collection<Long> ids);
+
+    // Feed de alterações: SQL nativo para enxergar também as linhas removidas (o @Where não se aplica aqui).
+    // Keyset por (alteracao, id), coberto por ix_veiculo_alteracao_id. ate é a marca d'água (VersaoColecao):
+    // acima dela ainda pode surgir um número menor que o de uma linha já visível, que o cursor pularia
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(value = "SELECT * FROM veiculo "
+            + "WHERE (alteracao > :since OR (alteracao = :since AND id > :afterId)) AND alteracao <= :ate "
+            + "ORDER BY alteracao, id LIMIT :limite", nativeQuery = true)
+    List<Veiculo> findAlteracoes(@Param("since") long since, @Param("afterId") long afterId, @Param("ate") long ate,
+                                 @Param("limite") int limite);
+
+    // Checagem de duplicidade de um lote inteiro de importação em uma só consulta
+    @Query("SELECT v.placa FROM Veiculo v WHERE v.placa IN :placas")
+    List<String> findPlacasExistentes(@Param("placas") Collection<String> placas);
+
+    // Leitura em cursor para exportação: linhas buscadas de 500 em 500 e sem snapshot de dirty-checking.
+    // Deve ser consumido dentro de uma transação e fechado ao final.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT v FROM Veiculo v ORDER BY v.id")
+    Stream<Veiculo> streamAll();
+
+    // Agregação feita no banco: devolve uma linha por marca em vez de carregar a frota inteira
+    @Query("SELECT new com.tinnova.veiculos.repository.ContagemMarca(v.marca, COUNT(v)) FROM Veiculo v GROUP BY v.marca")
+    List<ContagemMarca> countByMarca();
 }
@@ -0,0 +1,25 @@
+package com.tinnova.veiculos.repository;
+
+import com.tinnova.veiculos.dto.VeiculoResumo;
+import com.tinnova.veiculos.model.Veiculo;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface VeiculoRepositoryCustom {
+
+    // Busca por Specification projetada em VeiculoResumo. Com contar = true devolve uma Page (com COUNT(*));
+    // com contar = false, um Slice: busca size + 1 linhas só para saber se existe a próxima
+    Slice<VeiculoResumo> findResumos(Specification<Veiculo> spec, Pageable pageable, boolean contar);
+
+    // Próximo número de seq_alteracao, registrado em alteracoes pela própria transação de escrita (obrigatória).
+    // Nenhuma linha compartilhada é bloqueada; se a transação não confirmar, o número é registrado como descartado
+    long registrarAlteracao();
+
+    // Marca d'água e transações confirmadas acima dela, calculadas numa única consulta a contador_alteracoes e
+    // alteracoes. Usada como ETag/Last-Modified das coleções e como limite do feed (cobre também os removidos)
+    VersaoColecao findVersaoColecao();
+
+    // Grava a marca d'água atual em contador_alteracoes e apaga de alteracoes os números até ela
+    void consolidarAlteracoes();
+}
@@ -0,0 +1,225 @@
+package com.tinnova.veiculos.repository;
+
+import com.tinnova.veiculos.dto.VeiculoResumo;
+import com.tinnova.veiculos.exception.RequisicaoInvalidaException;
+import com.tinnova.veiculos.model.Veiculo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+class VeiculoRepositoryCustomImpl implements VeiculoRepositoryCustom {
+
+    private static final Logger log = LoggerFactory.getLogger(VeiculoRepositoryCustomImpl.class);
+
+    private static final String SEQUENCIA_ALTERACOES = "seq_alteracao";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${veiculos.alteracoes.lacuna-maxima-ms:60000}")
+    private long lacunaMaximaMs;
+
+    private volatile String sqlProximoNumero;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<VeiculoResumo> findResumos(Specification<Veiculo> spec, Pageable pageable, boolean contar) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<VeiculoResumo> query = cb.createQuery(VeiculoResumo.class);
+        Root<Veiculo> root = query.from(Veiculo.class);
+
+        query.select(cb.construct(VeiculoResumo.class,
+                root.get("id"), root.get("veiculo"), root.get("marca"), root.get("modelo"), root.get("ano"),
+                root.get("cor"), root.get("placa"), root.get("precoDolar"), root.get("vendido")));
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        // setFirstResult é int: um offset maior daria a volta para negativo em vez de falhar
+        if (pageable.getOffset() > Integer.MAX_VALUE) {
+            throw new RequisicaoInvalidaException("Página fora do intervalo suportado: " + pageable.getPageNumber());
+        }
+        TypedQuery<VeiculoResumo> typedQuery = entityManager.createQuery(query);
+        typedQuery.setFirstResult((int) pageable.getOffset());
+
+        if (contar) {
+            typedQuery.setMaxResults(pageable.getPageSize());
+            // O COUNT(*) só é executado quando o tamanho da página não basta para deduzir o total
+            return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> contar(spec));
+        }
+
+        typedQuery.setMaxResults(pageable.getPageSize() + 1);
+        List<VeiculoResumo> linhas = typedQuery.getResultList();
+        boolean hasNext = linhas.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? linhas.subList(0, pageable.getPageSize()) : linhas, pageable, hasNext);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long registrarAlteracao() {
+        long numero = ((Number) entityManager.createNativeQuery(sqlProximoNumero()).getSingleResult()).longValue();
+        entityManager.createNativeQuery("INSERT INTO alteracoes (numero, registrada) VALUES (?1, LOCALTIMESTAMP)")
+                .setParameter(1, numero)
+                .executeUpdate();
+        // Com rollback o registro acima some junto; sem outro, a marca d'água esperaria a lacuna envelhecer
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    descartar(numero);
+                }
+            }
+        });
+        return numero;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersaoColecao findVersaoColecao() {
+        MarcaDAgua marca = marcaDAgua();
+        return new VersaoColecao(marca.valor(), marca.confirmadasDepois(), marca.ultimaAlteracao());
+    }
+
+    @Override
+    @Transactional
+    public void consolidarAlteracoes() {
+        MarcaDAgua marca = marcaDAgua();
+        if (marca.valor() == marca.consolidada()) {
+            return;
+        }
+        // valor < ?1: outro nó pode ter consolidado uma marca d'água mais adiante na mesma hora
+        entityManager.createNativeQuery("UPDATE contador_alteracoes SET valor = ?1, atualizado = ?2 WHERE id = 1 AND valor < ?1")
+                .setParameter(1, marca.valor())
+                .setParameter(2, marca.atualizado())
+                .executeUpdate();
+        entityManager.createNativeQuery("DELETE FROM alteracoes WHERE numero <= ?1")
+                .setParameter(1, marca.valor())
+                .executeUpdate();
+    }
+
+    // Uma consulta só, para contador e registros saírem do mesmo snapshot mesmo com uma consolidação em curso.
+    // A marca d'água avança pelos números consecutivos acima da consolidada; uma lacuna é o número de uma
+    // transação ainda aberta (ou perdida numa queda do nó) e só é pulada quando o número seguinte já tem mais
+    // de lacuna-maxima-ms, bem acima do timeout das transações (spring.transaction.default-timeout)
+    private MarcaDAgua marcaDAgua() {
+        @SuppressWarnings("unchecked")
+        List<Object[]> linhas = entityManager
+                .createNativeQuery("SELECT c.valor, c.atualizado, LOCALTIMESTAMP, a.numero, a.registrada, a.descartada "
+                        + "FROM contador_alteracoes c LEFT JOIN alteracoes a ON a.numero > c.valor "
+                        + "WHERE c.id = 1 ORDER BY a.numero")
+                .getResultList();
+        Object[] contador = linhas.get(0);
+        long consolidada = ((Number) contador[0]).longValue();
+        LocalDateTime atualizado = instante(contador[1]);
+        LocalDateTime lacunaVencida = instante(contador[2]).minus(Duration.ofMillis(lacunaMaximaMs));
+
+        long valor = consolidada;
+        LocalDateTime ultimaAlteracao = atualizado;
+        int confirmadasDepois = 0;
+        boolean consecutivos = true;
+        for (Object[] linha : linhas) {
+            if (linha[3] == null) break;
+            long numero = ((Number) linha[3]).longValue();
+            LocalDateTime registrada = instante(linha[4]);
+            boolean descartada = Boolean.TRUE.equals(linha[5]);
+
+            consecutivos = consecutivos && (numero == valor + 1 || registrada.isBefore(lacunaVencida));
+            if (consecutivos) {
+                valor = numero;
+            }
+            // Um número descartado fecha a lacuna, mas não mudou nenhum dado
+            if (descartada) continue;
+            if (consecutivos) {
+                atualizado = maisRecente(atualizado, registrada);
+            } else {
+                confirmadasDepois++;
+            }
+            ultimaAlteracao = maisRecente(ultimaAlteracao, registrada);
+        }
+        return new MarcaDAgua(consolidada, valor, atualizado, confirmadasDepois, ultimaAlteracao);
+    }
+
+    // Transação própria: a do escritor já terminou. Falhar aqui só atrasa a marca d'água até a lacuna vencer
+    private void descartar(long numero) {
+        TransactionTemplate novaTransacao = new TransactionTemplate(transactionManager);
+        novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            novaTransacao.executeWithoutResult(status -> entityManager
+                    .createNativeQuery("INSERT INTO alteracoes (numero, registrada, descartada) VALUES (?1, LOCALTIMESTAMP, TRUE)")
+                    .setParameter(1, numero)
+                    .executeUpdate());
+        } catch (RuntimeException e) {
+            log.warn("Falha ao registrar o número de alteração descartado {}", numero, e);
+        }
+    }
+
+    // "SELECT próximo valor" da sequence no dialeto do banco em uso (H2 ou PostgreSQL)
+    private String sqlProximoNumero() {
+        String sql = sqlProximoNumero;
+        if (sql == null) {
+            Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect();
+            sql = dialect.getSequenceSupport().getSequenceNextValString(SEQUENCIA_ALTERACOES);
+            sqlProximoNumero = sql;
+        }
+        return sql;
+    }
+
+    private static LocalDateTime instante(Object valor) {
+        return valor instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) valor;
+    }
+
+    private static LocalDateTime maisRecente(LocalDateTime a, LocalDateTime b) {
+        return a == null || (b != null && b.isAfter(a)) ? b : a;
+    }
+
+    // consolidada: valor gravado em contador_alteracoes; atualizado: última escrita confirmada até valor
+    private record MarcaDAgua(long consolidada, long valor, LocalDateTime atualizado, int confirmadasDepois,
+                              LocalDateTime ultimaAlteracao) {}
+
+    private long contar(Specification<Veiculo> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Veiculo> root = query.from(Veiculo.class);
+
+        query.select(cb.count(root));
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,18 @@
+package com.tinnova.veiculos.repository;
+
+import java.time.LocalDateTime;
+
+// Versão da coleção inteira, incluindo removidos. alteracao é a marca d'água: todas as transações com número
+// até ela já terminaram. confirmadasDepois conta as transações acima dela já confirmadas (a marca d'água fica
+// parada enquanto houver uma menor em andamento); esse conjunto só cresce até a marca d'água andar, então o par
+// identifica os dados. ultimaAlteracao é o instante da última escrita confirmada
+public record VersaoColecao(long alteracao, int confirmadasDepois, LocalDateTime ultimaAlteracao) {
+
+    public VersaoColecao(long alteracao, LocalDateTime ultimaAlteracao) {
+        this(alteracao, 0, ultimaAlteracao);
+    }
+
+    public String tag() {
+        return confirmadasDepois == 0 ? String.valueOf(alteracao) : alteracao + "+" + confirmadasDepois;
+    }
+}
@@ -0,0 +1,22 @@
+package com.tinnova.veiculos.repository.reativo;
+
+import com.tinnova.veiculos.model.VeiculoLeitura;
+import com.tinnova.veiculos.repository.ContagemMarca;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Repositório R2DBC da API reativa; só existe com veiculos.reativo.habilitado=true (ver ReativoConfig)
+public interface VeiculoLeituraRepository extends ReactiveCrudRepository<VeiculoLeitura, Long> {
+
+    Flux<VeiculoLeitura> findByDeletedFalse(Pageable pageable);
+
+    Mono<Long> countByDeletedFalse();
+
+    Mono<VeiculoLeitura> findByIdAndDeletedFalse(Long id);
+
+    @Query("SELECT marca, COUNT(*) AS total FROM veiculo WHERE deleted = false GROUP BY marca")
+    Flux<ContagemMarca> countByMarca();
+}
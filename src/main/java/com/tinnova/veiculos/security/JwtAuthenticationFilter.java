@@ -1,29 +1,52 @@
 package com.tinnova.veiculos.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    private static final String METRICA_AUTENTICACAO = "auth.jwt.requests";
+
+    static final String MDC_USUARIO = "usuario";
+
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
 
-    public JwtAuthenticationFilter(
-            JwtService jwtService,
-            UserDetailsService userDetailsService
-    ) {
+    // Métricas expostas em /actuator/metrics (auth.jwt.requests por resultado e auth.jwt.parse)
+    private final Counter autenticados;
+    private final Counter tokensInvalidos;
+    private final Counter tokensRevogados;
+    private final Timer tempoValidacao;
+
+    public JwtAuthenticationFilter(JwtService jwtService, MeterRegistry meterRegistry) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.autenticados = contador(meterRegistry, "sucesso");
+        this.tokensInvalidos = contador(meterRegistry, "invalido");
+        this.tokensRevogados = contador(meterRegistry, "revogado");
+        this.tempoValidacao = Timer.builder("auth.jwt.parse")
+                .description("Tempo para validar o token e extrair as claims")
+                .register(meterRegistry);
     }
 
     @Override
@@ -43,42 +66,91 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = authHeader.substring(7);
 
+        // Uma única validação por requisição: assinatura verificada (ou vinda do cache) e claims extraídas juntas.
+        // O timer cobre só essa etapa e é registrado uma vez, com sucesso ou falha
+        Claims claims = null;
+        String motivo = null;
+        long inicio = System.nanoTime();
+        long duracao;
+        try {
+            claims = jwtService.extractClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            motivo = e.getMessage();
+            SecurityContextHolder.clearContext();
+        } finally {
+            duracao = System.nanoTime() - inicio;
+            tempoValidacao.record(duracao, TimeUnit.NANOSECONDS);
+        }
+
+        if (claims == null) {
+            tokensInvalidos.increment();
+            try (MDC.MDCCloseable m = MDC.putCloseable("motivo", String.valueOf(motivo))) {
+                logResultado("invalido", duracao, "Token JWT recusado");
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // O usuário fica no MDC até o fim da requisição: os logs das camadas abaixo saem com ele
+        String username = claims.getSubject();
+        if (username != null) {
+            MDC.put(MDC_USUARIO, username);
+        }
         try {
-            String username = jwtService.extractUsername(token);
+            autenticar(request, claims, username, duracao);
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_USUARIO);
+        }
+    }
 
-            var existingAuth = SecurityContextHolder.getContext().getAuthentication();
+    private void autenticar(HttpServletRequest request, Claims claims, String username, long duracao) {
+        var existingAuth = SecurityContextHolder.getContext().getAuthentication();
 
-            if (username != null &&
-                    existingAuth == null &&
-                    jwtService.isTokenValid(token)) {
+        if (jwtService.isRevogado(claims)) {
+            tokensRevogados.increment();
+            logResultado("revogado", duracao, "Token JWT revogado");
 
-                UserDetails userDetails =
-                        userDetailsService.loadUserByUsername(username);
+        } else if (username != null && existingAuth == null) {
 
-                UsernamePasswordAuthenticationToken auth =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
+            // Principal montado só com as claims do token, sem ida ao UserDetailsService
+            List<SimpleGrantedAuthority> authorities = jwtService.extractRoles(claims)
+                    .stream()
+                    .map(SimpleGrantedAuthority::new)
+                    .toList();
 
-                auth.setDetails(
-                        new WebAuthenticationDetailsSource()
-                                .buildDetails(request)
-                );
+            UsernamePasswordAuthenticationToken auth =
+                    new UsernamePasswordAuthenticationToken(
+                            username,
+                            null,
+                            authorities
+                    );
 
-                SecurityContextHolder.getContext().setAuthentication(auth);
-                System.out.println("> Authentication setado com sucesso");
+            auth.setDetails(
+                    new WebAuthenticationDetailsSource()
+                            .buildDetails(request)
+            );
 
-            } else {
-                System.out.println("⚠ Não autenticado (token inválido OU contexto já preenchido)");
-            }
+            SecurityContextHolder.getContext().setAuthentication(auth);
+            autenticados.increment();
+            logResultado("sucesso", duracao, "Token JWT autenticado");
+        }
+    }
 
-        } catch (Exception e) {
-            System.out.println("> Erro no JwtAuthenticationFilter: " + e.getMessage());
-            SecurityContextHolder.clearContext();
+    // Resultado e duração da validação no MDC (impresso por logging.pattern.level), não no texto da mensagem.
+    // INFO por requisição é barato aqui: o AsyncAppender do logback-spring.xml nunca bloqueia a thread
+    private static void logResultado(String resultado, long duracaoNanos, String mensagem) {
+        try (MDC.MDCCloseable r = MDC.putCloseable("resultado", resultado);
+             MDC.MDCCloseable d = MDC.putCloseable("duracaoMs",
+                     String.format(Locale.ROOT, "%.3f", duracaoNanos / 1_000_000.0))) {
+            log.info(mensagem);
         }
+    }
 
-        filterChain.doFilter(request, response);
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder(METRICA_AUTENTICACAO)
+                .description("Requisições com token JWT por resultado da autenticação")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
     }
 }
@@ -1,35 +1,109 @@
 package com.tinnova.veiculos.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MissingClaimException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 @Service
 public class JwtService {
 
     private static final String SECRET = "minha-chave-secret-super-segura-com-mais-de-32-bytes";
 
-    private Key getKey() {
-        return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
-    }
+    // Chave e parser são imutáveis e thread-safe: montados uma vez só
+    static final Key KEY = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+
+    private static final Duration TTL_CACHE_TOKEN = Duration.ofMinutes(5);
+
+    static final Duration VALIDADE_TOKEN = Duration.ofHours(1);
+    static final String CLAIM_ROLES = "roles";
+
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(KEY)
+            .build();
+
+    // Tokens já verificados: o mesmo token em requisições seguidas não refaz o HMAC.
+    // A entrada nunca vive mais que o próprio token (claim exp).
+    private final Cache<String, Claims> tokensVerificados = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfter(new Expiry<String, Claims>() {
+                @Override
+                public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                    return tempoDeVida(claims).toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                    return tempoDeVida(claims).toNanos();
+                }
 
+                @Override
+                public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    // jti dos tokens revogados (logout); basta guardá-los até o token expirar sozinho
+    private final Cache<String, Boolean> tokensRevogados = Caffeine.newBuilder()
+            .expireAfterWrite(VALIDADE_TOKEN)
+            .build();
+
+    // Roles e expiração vão no próprio token: o filtro monta a autenticação sem consultar o UserDetailsService
     public String generateToken(UserDetails userDetails) {
+        Date agora = new Date();
+        List<String> roles = userDetails.getAuthorities()
+                .stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
-                .signWith(getKey(), SignatureAlgorithm.HS256)
+                .claim(CLAIM_ROLES, roles)
+                .setIssuedAt(agora)
+                .setExpiration(new Date(agora.getTime() + VALIDADE_TOKEN.toMillis()))
+                .signWith(KEY, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    // roles é obrigatória (conferida em extractClaims)
+    public List<String> extractRoles(Claims claims) {
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        return roles.stream().map(String::valueOf).toList();
+    }
+
+    public void revogar(String token) {
+        tokensRevogados.put(extractClaims(token).getId(), Boolean.TRUE);
+        tokensVerificados.invalidate(token);
+    }
+
+    // Consulta só memória local: o caminho de autenticação continua sem I/O
+    public boolean isRevogado(Claims claims) {
+        return tokensRevogados.getIfPresent(claims.getId()) != null;
+    }
+
     public boolean isTokenValid(String token) {
         try {
-            getClaims(token);
+            extractClaims(token);
             return true;
         } catch (JwtException e) {
             return false;
@@ -37,14 +111,41 @@ public class JwtService {
     }
 
     public String extractUsername(String token) {
-        return getClaims(token).getSubject();
+        return extractClaims(token).getSubject();
+    }
+
+    // Valida assinatura, expiração e claims obrigatórias uma única vez por token; lança JwtException se inválido
+    public Claims extractClaims(String token) {
+        Claims claims = tokensVerificados.getIfPresent(token);
+        if (claims == null) {
+            Jws<Claims> jws = parser.parseClaimsJws(token);
+            claims = jws.getBody();
+            exigirClaims(jws.getHeader(), claims);
+            tokensVerificados.put(token, claims);
+        }
+        return claims;
     }
 
-    private Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // O parser só confere exp quando ela existe. Sem exp o token valeria para sempre, sem jti não poderia ser
+    // revogado e sem roles o filtro autenticaria um usuário sem nenhuma permissão
+    private static void exigirClaims(JwsHeader<?> header, Claims claims) {
+        if (claims.getExpiration() == null) {
+            throw new MissingClaimException(header, claims, "Token sem a claim obrigatória exp");
+        }
+        if (claims.getId() == null) {
+            throw new MissingClaimException(header, claims, "Token sem a claim obrigatória jti");
+        }
+        if (!(claims.get(CLAIM_ROLES) instanceof List)) {
+            throw new MissingClaimException(header, claims, "Token sem a claim obrigatória " + CLAIM_ROLES);
+        }
+    }
+
+    private static Duration tempoDeVida(Claims claims) {
+        Date expiracao = claims.getExpiration();
+        Duration restante = Duration.ofMillis(expiracao.getTime() - System.currentTimeMillis());
+        if (restante.isNegative()) {
+            return Duration.ZERO;
+        }
+        return restante.compareTo(TTL_CACHE_TOKEN) < 0 ? restante : TTL_CACHE_TOKEN;
     }
 }
@@ -1,50 +1,185 @@
 package com.tinnova.veiculos.service;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class CambioService {
 
+    private static final Logger log = LoggerFactory.getLogger(CambioService.class);
+
+    private static final String CHAVE_CACHE = "latest";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(3);
+
+    // Depois dessa idade a cotação ainda é servida, mas uma atualização é disparada em segundo plano
+    private static final Duration ATUALIZAR_APOS = Duration.ofMinutes(5);
+
     private final WebClient webClient;
+    private final WebClient fallbackWebClient;
+
+    // Com a API principal fora do ar, as chamadas vão direto para a Frankfurter sem esperar o timeout
+    private final CircuitBreaker circuitBreaker;
 
-    public CambioService(@Qualifier("cambioWebClient") WebClient webClient) {
+    // Cache "cotacaoDolar" em duas camadas: leitura local, Redis para todos os nós verem a mesma cotação
+    private final Cache cache;
+
+    // Busca em andamento compartilhada por todas as chamadas concorrentes (uma única ida à API por vez)
+    private final AtomicReference<Mono<BigDecimal>> cotacaoEmAndamento = new AtomicReference<>();
+
+    // Última cotação obtida com sucesso; continua valendo se as duas APIs (ou o Redis) falharem
+    private final AtomicReference<Cotacao> ultimaCotacao = new AtomicReference<>();
+
+    public CambioService(
+            @Qualifier("cambioWebClient") WebClient webClient,
+            @Qualifier("frankfurterWebClient") WebClient fallbackWebClient,
+            CircuitBreaker cambioCircuitBreaker,
+            CacheManager cacheManager
+    ) {
         this.webClient = webClient;
+        this.fallbackWebClient = fallbackWebClient;
+        this.circuitBreaker = cambioCircuitBreaker;
+        this.cache = cacheManager.getCache("cotacaoDolar");
     }
 
-    @Cacheable(value = "cotacaoDolar", key = "'latest'", unless = "#result == null") // Cache por 10 minutos
+    // Só bloqueia na primeira chamada da aplicação; depois devolve a última cotação e atualiza em segundo plano
     public BigDecimal getCotacaoDolarBRL() {
-        try {
-            // API Principal
-            Mono<Map[]> response = webClient.get()
-                    .uri("/json/last/USD-BRL")
-                    .retrieve()
-                    .bodyToMono(Map[].class);
-
-            Map<String, Object> usdBrL = (Map<String, Object>) Objects.requireNonNull(response.block())[0];
-            return new BigDecimal((String) usdBrL.get("bid"));
-
-        } catch (Exception e) {
-            // Fallback API
-            return getCotacaoDolarBRLFallback();
+        Cotacao atual = cotacaoAtual();
+        if (atual == null) {
+            return getCotacaoDolarBRLAsync().block();
+        }
+        atualizarSeAntiga(atual);
+        return atual.valor();
+    }
+
+    public Mono<BigDecimal> getCotacaoDolarBRLAsync() {
+        Cotacao atual = cotacaoAtual();
+        if (atual == null) {
+            return buscarCotacaoCompartilhada();
+        }
+        atualizarSeAntiga(atual);
+        return Mono.just(atual.valor());
+    }
+
+    // Roda antes do vencimento (10 min) para que nenhuma busca precise esperar pela API de câmbio
+    @Scheduled(fixedDelayString = "${cambio.atualizacao.intervalo-ms:300000}")
+    public void atualizarCotacao() {
+        // Outro nó pode já ter atualizado a cotação no Redis; nesse caso não há por que chamar a API
+        Cotacao compartilhada = cotacaoAtual();
+        if (compartilhada != null && !compartilhada.isMaisAntigaQue(ATUALIZAR_APOS)) {
+            return;
+        }
+
+        buscarCotacaoCompartilhada()
+                .subscribe(
+                        cotacao -> log.debug("Cotação USD/BRL atualizada: {}", cotacao),
+                        e -> log.warn("Falha ao atualizar a cotação USD/BRL; mantendo o último valor", e)
+                );
+    }
+
+    private Cotacao cotacaoAtual() {
+        Cotacao compartilhada = cache.get(CHAVE_CACHE, Cotacao.class);
+        if (compartilhada == null) {
+            return ultimaCotacao.get();
+        }
+        if (compartilhada != ultimaCotacao.get()) {
+            ultimaCotacao.set(compartilhada);
         }
+        return compartilhada;
     }
 
-    // Método de fallback sem cache para evitar loop infinito
+    private void publicar(BigDecimal valor) {
+        Cotacao nova = new Cotacao(valor, Instant.now());
+        ultimaCotacao.set(nova);
+        cache.put(CHAVE_CACHE, nova);
+    }
+
+    private void atualizarSeAntiga(Cotacao atual) {
+        if (atual.isMaisAntigaQue(ATUALIZAR_APOS)) {
+            atualizarCotacao();
+        }
+    }
+
+    // Quem chegar durante uma busca recebe o mesmo Mono em vez de disparar outra chamada
+    private Mono<BigDecimal> buscarCotacaoCompartilhada() {
+        Mono<BigDecimal> emAndamento = cotacaoEmAndamento.get();
+        if (emAndamento != null) {
+            return emAndamento;
+        }
+
+        // A gravação no Redis sai da thread de I/O do WebClient
+        Mono<BigDecimal> novaBusca = buscarCotacao()
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(this::publicar)
+                .onErrorResume(e -> {
+                    Cotacao anterior = ultimaCotacao.get();
+                    return anterior != null ? Mono.just(anterior.valor()) : Mono.error(e);
+                })
+                .doFinally(signal -> cotacaoEmAndamento.set(null))
+                .cache();
+
+        return cotacaoEmAndamento.compareAndSet(null, novaBusca)
+                ? novaBusca
+                : buscarCotacaoCompartilhada();
+    }
+
+    // Esquece a cotação em memória e no cache: a próxima leitura espera pela API (benchmarks de cotação fria)
+    public void descartarCotacao() {
+        ultimaCotacao.set(null);
+        cache.evict(CHAVE_CACHE);
+    }
+
+    // Consulta direta à API de fallback, sem passar pela cotação em memória
     public BigDecimal getCotacaoDolarBRLFallback() {
-        WebClient fallbackWebClient = WebClient.builder().baseUrl("https://api.frankfurter.app").build();
-        Mono<Map> response = fallbackWebClient.get()
+        return buscarCotacaoFallback().block();
+    }
+
+    private Mono<BigDecimal> buscarCotacao() {
+        // API Principal, com a Frankfurter como fallback
+        return buscarCotacaoPrincipal()
+                .onErrorResume(e -> buscarCotacaoFallback());
+    }
+
+    private Mono<BigDecimal> buscarCotacaoPrincipal() {
+        return webClient.get()
+                .uri("/json/last/USD-BRL")
+                .retrieve()
+                .bodyToMono(Map[].class)
+                .timeout(TIMEOUT)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .map(response -> {
+                    Map<String, Object> usdBrL = (Map<String, Object>) response[0];
+                    return new BigDecimal((String) usdBrL.get("bid"));
+                });
+    }
+
+    protected Mono<BigDecimal> buscarCotacaoFallback() {
+        return fallbackWebClient.get()
                 .uri("/latest?from=USD&to=BRL")
                 .retrieve()
-                .bodyToMono(Map.class);
-        Map<String, Object> rates = (Map<String, Object>) response.block().get("rates");
-        return new BigDecimal(rates.get("BRL").toString());
+                .bodyToMono(Map.class)
+                .timeout(TIMEOUT)
+                .retryWhen(Retry.backoff(1, Duration.ofMillis(200)))
+                .map(response -> {
+                    Map<String, Object> rates = (Map<String, Object>) response.get("rates");
+                    return new BigDecimal(rates.get("BRL").toString());
+                });
     }
 }
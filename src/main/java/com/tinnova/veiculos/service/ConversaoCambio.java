@@ -0,0 +1,80 @@
+package com.tinnova.veiculos.service;
+
+import com.tinnova.veiculos.exception.RequisicaoInvalidaException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Conversão BRL -> USD em centavos (long) dos limites dos filtros de preço; o precoReal das respostas é só uma
+// multiplicação, feita em ComPrecoReal. A cotação vira um inteiro em milionésimos uma única vez por valor de
+// cotação; daí em diante cada conversão é uma multiplicação e uma divisão inteiras, e os limites de busca já
+// convertidos ficam memorizados até a cotação mudar. Público só para o módulo benchmarks.
+public final class ConversaoCambio {
+
+    private static final long MICROS = 1_000_000L;
+
+    // Limites distintos memorizados por cotação; acima disso a tabela recomeça (filtros vêm de poucos presets)
+    private static final int MAX_LIMITES = 1024;
+
+    private volatile Tabela tabela;
+
+    // Preço em BRL convertido para centavos de dólar, arredondado como o antigo divide(cotacao, 2, HALF_UP)
+    public long centavosDolar(BigDecimal precoBRL, BigDecimal cotacaoDolar) {
+        Tabela atual = tabelaDa(cotacaoDolar);
+        Long memorizado = atual.centavosPorReal.get(precoBRL);
+        if (memorizado != null) {
+            return memorizado;
+        }
+        if (atual.centavosPorReal.size() >= MAX_LIMITES) {
+            atual.centavosPorReal.clear();
+        }
+        long centavos;
+        try {
+            centavos = dividir(Math.multiplyExact(centavos(precoBRL), MICROS), atual.cotacaoMicros);
+        } catch (ArithmeticException e) {
+            // Acima de ~92 bilhões de reais o produto não cabe em long: divide em BigDecimal, como antes
+            centavos = centavos(precoBRL.divide(cotacaoDolar, 2, RoundingMode.HALF_UP));
+        }
+        atual.centavosPorReal.put(precoBRL, centavos);
+        return centavos;
+    }
+
+    // Maior valor que cabe em long centavos
+    public static final BigDecimal VALOR_MAXIMO = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+
+    // Valores que não cabem em long centavos (filtros como minPreco=1e20) são erro do cliente: 400, não 500
+    static long centavos(BigDecimal valor) {
+        try {
+            return valor.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new RequisicaoInvalidaException("Valor fora do intervalo suportado: " + valor.toPlainString());
+        }
+    }
+
+    private Tabela tabelaDa(BigDecimal cotacaoDolar) {
+        Tabela atual = tabela;
+        if (atual == null || atual.cotacao.compareTo(cotacaoDolar) != 0) {
+            atual = new Tabela(cotacaoDolar);
+            tabela = atual;
+        }
+        return atual;
+    }
+
+    // Divisão inteira com arredondamento HALF_UP (meio centavo para longe do zero)
+    private static long dividir(long dividendo, long divisor) {
+        long metade = divisor / 2;
+        return dividendo >= 0 ? (dividendo + metade) / divisor : (dividendo - metade) / divisor;
+    }
+
+    private static final class Tabela {
+        private final BigDecimal cotacao;
+        private final long cotacaoMicros;
+        private final ConcurrentHashMap<BigDecimal, Long> centavosPorReal = new ConcurrentHashMap<>();
+
+        private Tabela(BigDecimal cotacao) {
+            this.cotacao = cotacao;
+            this.cotacaoMicros = cotacao.movePointRight(6).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.tinnova.veiculos.service;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+// Cotação USD/BRL com o instante em que foi obtida, usado para decidir quando atualizar
+public record Cotacao(BigDecimal valor, Instant obtidaEm) implements Serializable {
+
+    public boolean isMaisAntigaQue(Duration idade) {
+        return obtidaEm.plus(idade).isBefore(Instant.now());
+    }
+}
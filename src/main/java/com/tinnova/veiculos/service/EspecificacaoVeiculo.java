@@ -0,0 +1,31 @@
+package com.tinnova.veiculos.service;
+
+import com.tinnova.veiculos.model.Veiculo;
+import org.springframework.data.jpa.domain.Specification;
+
+// Filtros combinados da busca de veículos (null = sem filtro), com a faixa de preço já em centavos de dólar.
+// Público para o módulo benchmarks medir a montagem da Specification sem passar pelo VeiculoService
+public final class EspecificacaoVeiculo {
+
+    private EspecificacaoVeiculo() {
+    }
+
+    public static Specification<Veiculo> filtros(String marca, Integer ano, String cor,
+                                                  Long minCentavos, Long maxCentavos) {
+        Specification<Veiculo> spec = Specification.where(null);
+
+        if (marca != null) spec = spec.and((root, query, cb) -> cb.equal(root.get("marca"), marca));
+        if (ano != null) spec = spec.and((root, query, cb) -> cb.equal(root.get("ano"), ano));
+        if (cor != null) spec = spec.and((root, query, cb) -> cb.equal(root.get("cor"), cor));
+
+        // Faixa comparada em centavos de dólar (preco_centavos)
+        if (minCentavos != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("precoCentavos"), minCentavos));
+        }
+        if (maxCentavos != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("precoCentavos"), maxCentavos));
+        }
+
+        return spec;
+    }
+}
@@ -0,0 +1,70 @@
+package com.tinnova.veiculos.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinnova.veiculos.dto.EventoVeiculo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+// Leva os eventos de escrita aos clientes SSE conectados nos outros nós, pelo pub/sub do Redis (o mesmo usado
+// nas invalidações do cache). Cada nó entrega os próprios eventos direto no sink e ignora as próprias mensagens.
+// Com spring.cache.type=none não há Redis: cada nó só transmite as escritas que ele mesmo fez
+@Component
+@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis", matchIfMissing = true)
+public class EventoVeiculoRedis {
+
+    private static final Logger log = LoggerFactory.getLogger(EventoVeiculoRedis.class);
+
+    public static final String CANAL_EVENTOS = "veiculos:eventos";
+
+    private final EventoVeiculoService eventoVeiculoService;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final String noId = UUID.randomUUID().toString();
+
+    public EventoVeiculoRedis(EventoVeiculoService eventoVeiculoService, StringRedisTemplate redisTemplate,
+                              ObjectMapper objectMapper, RedisMessageListenerContainer listenerContainer) {
+        this.eventoVeiculoService = eventoVeiculoService;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        listenerContainer.addMessageListener(
+                (message, pattern) -> aoReceber(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CANAL_EVENTOS));
+    }
+
+    // Depois do commit, como a entrega local; Redis fora do ar só deixa os outros nós sem o evento
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarVeiculo(EventoVeiculo evento) {
+        try {
+            redisTemplate.convertAndSend(CANAL_EVENTOS, objectMapper.writeValueAsString(new Mensagem(noId, evento)));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Falha ao publicar o evento {} do veículo {} para os outros nós",
+                    evento.tipo(), evento.veiculo().id(), e);
+        }
+    }
+
+    void aoReceber(String conteudo) {
+        Mensagem mensagem;
+        try {
+            mensagem = objectMapper.readValue(conteudo, Mensagem.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Mensagem de evento inválida no canal {}", CANAL_EVENTOS, e);
+            return;
+        }
+        if (!noId.equals(mensagem.no())) {
+            eventoVeiculoService.emitir(mensagem.evento());
+        }
+    }
+
+    record Mensagem(String no, EventoVeiculo evento) {}
+}
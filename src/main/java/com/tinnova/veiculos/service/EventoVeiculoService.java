@@ -0,0 +1,188 @@
+package com.tinnova.veiculos.service;
+
+import com.tinnova.veiculos.dto.AlteracaoVeiculo;
+import com.tinnova.veiculos.dto.EventoVeiculo;
+import com.tinnova.veiculos.dto.PaginaAlteracoes;
+import com.tinnova.veiculos.dto.TipoEvento;
+import com.tinnova.veiculos.dto.VeiculoResumo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Distribui os eventos de escrita de veículos para os clientes SSE. Um único sink alimenta todas as conexões:
+// nenhum cliente consulta o banco, e um cliente lento perde os eventos mais antigos em vez de segurar os outros.
+// A exceção é a reconexão com Last-Event-ID, que reenvia pelo feed de alterações o que foi perdido.
+// Escritas de outros nós chegam pelo EventoVeiculoRedis (pub/sub) e entram no mesmo sink
+@Service
+public class EventoVeiculoService {
+
+    private static final Logger log = LoggerFactory.getLogger(EventoVeiculoService.class);
+
+    // Eventos pendentes por conexão; acima disso os mais antigos são descartados
+    static final int BUFFER_POR_CLIENTE = 256;
+
+    // Alterações reenviadas numa reconexão; com mais que isso o cliente recebe RESSINCRONIZAR e recarrega tudo
+    static final int LIMITE_REENVIO = 1000;
+
+    // Evento sem dados: o cliente ficou tempo demais desconectado e deve recarregar a lista inteira
+    static final String RESSINCRONIZAR = "RESSINCRONIZAR";
+
+    // Mantém a conexão viva através de proxies que fecham conexões ociosas
+    private static final Duration INTERVALO_HEARTBEAT = Duration.ofSeconds(15);
+
+    // directBestEffort: um assinante sem demanda não bloqueia a emissão para os demais
+    private final Sinks.Many<EventoVeiculo> eventos = Sinks.many().multicast().directBestEffort();
+
+    // Escritas concorrentes emitem de threads diferentes; o sink exige emissão serializada
+    private final Object emissao = new Object();
+
+    private final VeiculoService veiculoService;
+    private final Counter descartados;
+
+    public EventoVeiculoService(VeiculoService veiculoService, MeterRegistry meterRegistry) {
+        this.veiculoService = veiculoService;
+        this.descartados = Counter.builder("veiculos.eventos.descartados")
+                .description("Eventos descartados por clientes SSE que não acompanharam o ritmo")
+                .register(meterRegistry);
+    }
+
+    // Só depois do commit: quem recebe o evento e consulta a API já enxerga a alteração.
+    // Fora de transação (fallbackExecution) o evento é repassado na hora.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarVeiculo(EventoVeiculo evento) {
+        emitir(evento);
+    }
+
+    // A escrita já foi confirmada: uma falha na entrega só é registrada, nunca volta para quem gravou
+    public void emitir(EventoVeiculo evento) {
+        Sinks.EmitResult resultado;
+        synchronized (emissao) {
+            resultado = eventos.tryEmitNext(evento);
+        }
+        if (resultado.isFailure() && resultado != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            log.warn("Evento {} do veículo {} não foi entregue aos clientes SSE: {}",
+                    evento.tipo(), evento.veiculo().id(), resultado);
+        }
+    }
+
+    public Flux<ServerSentEvent<EventoVeiculo>> assinar() {
+        return assinar(null);
+    }
+
+    // O id de cada evento é o cursor do feed ("alteracao-idVeiculo"). Com Last-Event-ID, o stream ao vivo é
+    // assinado antes da consulta do reenvio e só é entregue depois dela, sem o que o reenvio já cobriu
+    public Flux<ServerSentEvent<EventoVeiculo>> assinar(String ultimoEventoId) {
+        Cursor inicio = Cursor.de(ultimoEventoId);
+        Flux<ServerSentEvent<EventoVeiculo>> alteracoes = inicio == null
+                ? aoVivo().map(EventoVeiculoService::sse)
+                : Flux.defer(() -> reenviarEContinuar(inicio));
+
+        Flux<ServerSentEvent<EventoVeiculo>> heartbeat = Flux.interval(INTERVALO_HEARTBEAT)
+                .map(i -> ServerSentEvent.<EventoVeiculo>builder().comment("heartbeat").build());
+
+        return Flux.merge(alteracoes, heartbeat);
+    }
+
+    private Flux<EventoVeiculo> aoVivo() {
+        return eventos.asFlux()
+                .onBackpressureBuffer(BUFFER_POR_CLIENTE, descartado -> descartados.increment(),
+                        BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    private Flux<ServerSentEvent<EventoVeiculo>> reenviarEContinuar(Cursor inicio) {
+        // Conectado já: o que chegar durante o reenvio fica no buffer do publish até o concat assinar
+        AtomicReference<Disposable> conexao = new AtomicReference<>();
+        Flux<EventoVeiculo> aoVivo = aoVivo().publish().autoConnect(0, conexao::set);
+        AtomicReference<Cursor> ultimo = new AtomicReference<>(inicio);
+
+        Flux<ServerSentEvent<EventoVeiculo>> reenvio = Mono
+                .fromCallable(() -> veiculoService.findAlteracoes(inicio.alteracao(), inicio.id(), LIMITE_REENVIO))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(pagina -> reenvio(pagina, ultimo));
+
+        Flux<ServerSentEvent<EventoVeiculo>> seguintes = aoVivo
+                .filter(evento -> Cursor.de(evento).depoisDe(ultimo.get()))
+                .map(EventoVeiculoService::sse);
+
+        return Flux.concat(reenvio, seguintes)
+                .doFinally(sinal -> {
+                    Disposable d = conexao.get();
+                    if (d != null) d.dispose();
+                });
+    }
+
+    private Flux<ServerSentEvent<EventoVeiculo>> reenvio(PaginaAlteracoes pagina, AtomicReference<Cursor> ultimo) {
+        if (pagina.hasNext()) {
+            // Perdeu alterações demais: em vez de reenviar, pede a recarga e segue ao vivo a partir daqui
+            ultimo.set(new Cursor(pagina.nextSince(), pagina.nextAfterId()));
+            return Flux.just(ServerSentEvent.<EventoVeiculo>builder().event(RESSINCRONIZAR).build());
+        }
+        return Flux.fromIterable(pagina.content())
+                .map(EventoVeiculoService::evento)
+                .doOnNext(evento -> ultimo.set(Cursor.de(evento)))
+                .map(EventoVeiculoService::sse);
+    }
+
+    private static ServerSentEvent<EventoVeiculo> sse(EventoVeiculo evento) {
+        return ServerSentEvent.builder(evento)
+                .id(Cursor.de(evento).toString())
+                .event(evento.tipo().name())
+                .build();
+    }
+
+    // O feed não distingue venda de outras alterações; no reenvio ela chega como ATUALIZADO
+    private static EventoVeiculo evento(AlteracaoVeiculo a) {
+        TipoEvento tipo = switch (a.tipo()) {
+            case CRIADO -> TipoEvento.CRIADO;
+            case ATUALIZADO -> TipoEvento.ATUALIZADO;
+            case REMOVIDO -> TipoEvento.REMOVIDO;
+        };
+        Instant ocorridoEm = a.updated() == null ? Instant.now() : a.updated().atZone(ZoneId.systemDefault()).toInstant();
+        return new EventoVeiculo(tipo, new VeiculoResumo(a.id(), a.veiculo(), a.marca(), a.modelo(), a.ano(), a.cor(),
+                a.placa(), a.precoDolar(), a.vendido()), ocorridoEm, a.alteracao());
+    }
+
+    // Posição no feed de alterações: (alteracao, id do veículo)
+    private record Cursor(long alteracao, long id) {
+
+        static Cursor de(EventoVeiculo evento) {
+            return new Cursor(evento.alteracao(), evento.veiculo().id());
+        }
+
+        // Last-Event-ID ausente ou em outro formato: o cliente recebe só o que acontecer daqui em diante
+        static Cursor de(String id) {
+            if (id == null) return null;
+            int separador = id.indexOf('-');
+            if (separador <= 0) return null;
+            try {
+                return new Cursor(Long.parseLong(id.substring(0, separador)), Long.parseLong(id.substring(separador + 1)));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        boolean depoisDe(Cursor outro) {
+            return alteracao > outro.alteracao || (alteracao == outro.alteracao && id > outro.id);
+        }
+
+        @Override
+        public String toString() {
+            return alteracao + "-" + id;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.tinnova.veiculos.service;
+
+import com.tinnova.veiculos.exception.ValidationException;
+import org.springframework.http.MediaType;
+
+public enum FormatoExportacao {
+
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+    private final MediaType mediaType;
+    private final String extensao;
+
+    FormatoExportacao(MediaType mediaType, String extensao) {
+        this.mediaType = mediaType;
+        this.extensao = extensao;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    public static FormatoExportacao de(String formato) {
+        for (FormatoExportacao f : values()) {
+            if (f.extensao.equalsIgnoreCase(formato)) {
+                return f;
+            }
+        }
+        throw new ValidationException("Formato de exportação inválido: " + formato + " (use ndjson ou csv).");
+    }
+}
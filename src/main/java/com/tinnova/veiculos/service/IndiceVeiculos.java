@@ -0,0 +1,404 @@
+package com.tinnova.veiculos.service;
+
+import com.tinnova.veiculos.dto.EventoVeiculo;
+import com.tinnova.veiculos.dto.VeiculoResumo;
+import com.tinnova.veiculos.model.Veiculo;
+import com.tinnova.veiculos.repository.VeiculoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice em memória dos filtros da busca (marca, cor, ano e faixa de preço). Cada veículo ocupa uma posição
+// (slot); marca, cor e ano viram bitmaps de slots e o preço um array ordenado de centavos, então uma busca
+// combinada é uma interseção de bitmaps. O banco continua sendo a fonte da verdade: o índice só devolve ids,
+// é recarregado na subida e periodicamente, e acompanha as escritas de todos os nós pelo feed de alterações
+// (até a marca d'água de VersaoColecao), aplicado em páginas com uma única reordenação de preços por página. A busca não
+// consulta o banco para saber se o índice está em dia: confia na sincronização agendada e só recusa um índice
+// cuja última sincronização passou de atraso-maximo-ms, ou que ainda não aplicou uma escrita deste nó.
+@Service
+@ConditionalOnProperty(name = "veiculos.indice.habilitado", havingValue = "true")
+public class IndiceVeiculos {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceVeiculos.class);
+
+    private static final int LOTE_CARGA = 5000;
+    private static final int LOTE_ALTERACOES = 1000;
+
+    private final VeiculoRepository veiculoRepository;
+
+    // Leitores (buscas) e a troca/alteração das colunas
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Uma sincronização ou recarga por vez; buscas que não conseguem o lock vão ao banco em vez de esperar
+    private final ReentrantLock sincronizacao = new ReentrantLock();
+
+    // Protegido pelo lock
+    private Colunas colunas = new Colunas();
+
+    // Cursor do feed já aplicado (alteracao, id); escritos só com o lock de sincronização
+    private volatile long sincronizadoAte;
+    private long ultimoIdSincronizado;
+    // System.nanoTime() do início da última leitura do feed que chegou ao fim dele
+    private volatile long sincronizadoEm;
+
+    // Maior número de alteração já confirmado por este nó: a busca seguinte precisa enxergá-lo
+    private final AtomicLong escritaLocalAte = new AtomicLong();
+
+    private final long atrasoMaximoNanos;
+
+    private volatile boolean pronto;
+
+    public IndiceVeiculos(VeiculoRepository veiculoRepository,
+                          @Value("${veiculos.indice.atraso-maximo-ms:5000}") long atrasoMaximoMs) {
+        this.veiculoRepository = veiculoRepository;
+        this.atrasoMaximoNanos = TimeUnit.MILLISECONDS.toNanos(atrasoMaximoMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        recarregar();
+    }
+
+    // Recarga completa: reconstrói o índice a partir do banco, o que também devolve os slots de removidos
+    @Scheduled(initialDelayString = "${veiculos.indice.recarga-ms:3600000}", fixedDelayString = "${veiculos.indice.recarga-ms:3600000}")
+    public void recarregar() {
+        sincronizacao.lock();
+        try {
+            // Número lido antes da carga: o que for gravado durante ela volta pelo feed (reaplicar é inofensivo)
+            long versao = veiculoRepository.findVersaoColecao().alteracao();
+            Colunas novas = new Colunas();
+            long ultimoId = 0;
+            List<VeiculoResumo> lote;
+            do {
+                lote = veiculoRepository.findResumosAfter(ultimoId, PageRequest.of(0, LOTE_CARGA));
+                for (VeiculoResumo v : lote) {
+                    novas.gravar(v.id(), v.marca(), v.cor(), v.ano(),
+                            v.precoDolar() == null ? null : ConversaoCambio.centavos(v.precoDolar()));
+                }
+                if (!lote.isEmpty()) {
+                    ultimoId = lote.get(lote.size() - 1).id();
+                }
+            } while (lote.size() == LOTE_CARGA);
+            novas.reordenarPrecos();
+
+            lock.writeLock().lock();
+            try {
+                colunas = novas;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            sincronizadoAte = versao;
+            ultimoIdSincronizado = 0;
+            aplicarAlteracoes();
+            pronto = true;
+            log.info("Índice de veículos carregado com {} veículos", novas.slotPorId.size());
+        } catch (RuntimeException e) {
+            pronto = false;
+            log.warn("Falha ao carregar o índice de veículos; as buscas seguem pelo banco", e);
+        } finally {
+            sincronizacao.unlock();
+        }
+    }
+
+    // Traz as escritas feitas por qualquer nó desde a última sincronização
+    @Scheduled(fixedDelayString = "${veiculos.indice.sincronizacao-ms:1000}")
+    public void sincronizar() {
+        if (!pronto || !sincronizacao.tryLock()) {
+            return;
+        }
+        try {
+            aplicarAlteracoes();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao sincronizar o índice de veículos; nova tentativa no próximo ciclo", e);
+        } finally {
+            sincronizacao.unlock();
+        }
+    }
+
+    // Depois do commit, como o EventoVeiculoService: nesse ponto a escrita já aparece no feed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarVeiculo(EventoVeiculo evento) {
+        escritaLocalAte.accumulateAndGet(evento.alteracao(), Math::max);
+    }
+
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    // Número de alteração até onde o índice está aplicado, para o ETag das buscas que ele responde. Vazio quando
+    // o índice não responderia: quem chama usa a versão do banco
+    public OptionalLong versao() {
+        return emDia() ? OptionalLong.of(sincronizadoAte) : OptionalLong.empty();
+    }
+
+    // Ids em ordem crescente dos veículos que atendem a todos os filtros informados (null = sem filtro).
+    // A resposta nunca é mais antiga que versao() lida antes dela. Vazio enquanto o índice não está pronto, está
+    // em recarga ou atrasado: quem chama deve ir ao banco.
+    public Optional<long[]> buscar(String marca, Integer ano, String cor, Long minCentavos, Long maxCentavos) {
+        if (!emDia()) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return Optional.of(colunas.buscar(marca, ano, cor, minCentavos, maxCentavos));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Só estado em memória: escritas deste nó ainda fora do índice são aplicadas na hora (quem acabou de gravar
+    // enxerga a própria escrita); as dos outros nós esperam a sincronização agendada, com atraso limitado
+    private boolean emDia() {
+        if (!pronto) {
+            return false;
+        }
+        if (escritaLocalAte.get() > sincronizadoAte) {
+            if (!sincronizacao.tryLock()) {
+                return false;
+            }
+            try {
+                aplicarAlteracoes();
+            } catch (RuntimeException e) {
+                log.warn("Falha ao sincronizar o índice de veículos; busca pelo banco", e);
+                return false;
+            } finally {
+                sincronizacao.unlock();
+            }
+            // A marca d'água ainda não chegou à escrita: falta terminar uma transação com número menor
+            if (escritaLocalAte.get() > sincronizadoAte) {
+                return false;
+            }
+        }
+        return System.nanoTime() - sincronizadoEm <= atrasoMaximoNanos;
+    }
+
+    // Chamado com o lock de sincronização. Cada página do feed é aplicada com o write lock uma vez só
+    private void aplicarAlteracoes() {
+        long inicio = System.nanoTime();
+        long ate = veiculoRepository.findVersaoColecao().alteracao();
+        if (ate == sincronizadoAte && ultimoIdSincronizado == Long.MAX_VALUE) {
+            sincronizadoEm = inicio;
+            return;
+        }
+        List<Veiculo> pagina;
+        do {
+            pagina = veiculoRepository.findAlteracoes(sincronizadoAte, ultimoIdSincronizado, ate, LOTE_ALTERACOES);
+            if (pagina.isEmpty()) {
+                break;
+            }
+            lock.writeLock().lock();
+            try {
+                for (Veiculo v : pagina) {
+                    if (v.isDeleted()) {
+                        colunas.remover(v.getId());
+                    } else {
+                        colunas.gravar(v.getId(), v.getMarca(), v.getCor(), v.getAno(), v.getPrecoCentavos());
+                    }
+                }
+                colunas.reordenarPrecos();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Veiculo ultima = pagina.get(pagina.size() - 1);
+            ultimoIdSincronizado = ultima.getId();
+            sincronizadoAte = ultima.getAlteracao();
+        } while (pagina.size() == LOTE_ALTERACOES);
+        // Feed lido até a marca d'água: o índice está nela, mesmo que nenhuma linha tenha ficado com esse número
+        sincronizadoAte = ate;
+        ultimoIdSincronizado = Long.MAX_VALUE;
+        sincronizadoEm = inicio;
+    }
+
+    private static final class Colunas {
+
+        private static final long SEM_PRECO = Long.MIN_VALUE;
+        private static final int SEM_ANO = Integer.MIN_VALUE;
+        private static final BitSet VAZIO = new BitSet();
+
+        // Valores por slot; slots de removidos são reaproveitados pelos próximos veículos
+        private long[] ids = new long[1024];
+        private long[] centavos = new long[1024];
+        private int[] anos = new int[1024];
+        private String[] marcas = new String[1024];
+        private String[] cores = new String[1024];
+        private int slots;
+        private final BitSet livres = new BitSet();
+
+        private final Map<Long, Integer> slotPorId = new HashMap<>();
+        private final BitSet ativos = new BitSet();
+        private final Map<String, BitSet> porMarca = new HashMap<>();
+        private final Map<String, BitSet> porCor = new HashMap<>();
+        private final Map<Integer, BitSet> porAno = new HashMap<>();
+
+        // Preços dos slots ativos em ordem crescente, com o slot de cada um na mesma posição. Gravações e
+        // remoções só marcam o slot em alterados; reordenarPrecos aplica todas de uma vez
+        private long[] precosOrdenados = new long[0];
+        private int[] slotsPorPreco = new int[0];
+        private int precos;
+        private final BitSet alterados = new BitSet();
+
+        void gravar(long id, String marca, String cor, Integer ano, Long preco) {
+            Integer existente = slotPorId.get(id);
+            int slot;
+            if (existente != null) {
+                slot = existente;
+                desindexar(slot);
+            } else {
+                slot = novoSlot(id);
+            }
+
+            marcas[slot] = marca;
+            cores[slot] = cor;
+            anos[slot] = ano == null ? SEM_ANO : ano;
+            centavos[slot] = preco == null ? SEM_PRECO : preco;
+
+            if (marca != null) porMarca.computeIfAbsent(marca, m -> new BitSet()).set(slot);
+            if (cor != null) porCor.computeIfAbsent(cor, c -> new BitSet()).set(slot);
+            if (anos[slot] != SEM_ANO) porAno.computeIfAbsent(anos[slot], a -> new BitSet()).set(slot);
+            alterados.set(slot);
+            ativos.set(slot);
+        }
+
+        void remover(Long id) {
+            Integer slot = slotPorId.remove(id);
+            if (slot != null) {
+                desindexar(slot);
+                ativos.clear(slot);
+                livres.set(slot);
+            }
+        }
+
+        long[] buscar(String marca, Integer ano, String cor, Long minCentavos, Long maxCentavos) {
+            BitSet resultado = (BitSet) ativos.clone();
+            if (marca != null) resultado.and(porMarca.getOrDefault(marca, VAZIO));
+            if (cor != null) resultado.and(porCor.getOrDefault(cor, VAZIO));
+            if (ano != null) resultado.and(porAno.getOrDefault(ano, VAZIO));
+            if (minCentavos != null || maxCentavos != null) resultado.and(faixaDePreco(minCentavos, maxCentavos));
+
+            long[] encontrados = new long[resultado.cardinality()];
+            int i = 0;
+            for (int slot = resultado.nextSetBit(0); slot >= 0; slot = resultado.nextSetBit(slot + 1)) {
+                encontrados[i++] = ids[slot];
+            }
+            Arrays.sort(encontrados);
+            return encontrados;
+        }
+
+        // Uma passada para tirar os slots alterados do array ordenado, a ordenação só dos k preços novos e
+        // uma intercalação: O(n + k log k) por lote, em vez de um deslocamento O(n) por veículo
+        void reordenarPrecos() {
+            if (alterados.isEmpty()) {
+                return;
+            }
+            int novos = 0;
+            Integer[] ordem = new Integer[alterados.cardinality()];
+            for (int slot = alterados.nextSetBit(0); slot >= 0; slot = alterados.nextSetBit(slot + 1)) {
+                if (ativos.get(slot) && centavos[slot] != SEM_PRECO) {
+                    ordem[novos++] = slot;
+                }
+            }
+            Arrays.sort(ordem, 0, novos, (a, b) -> Long.compare(centavos[a], centavos[b]));
+
+            long[] precosNovos = new long[precos + novos];
+            int[] slotsNovos = new int[precos + novos];
+            int total = 0;
+            int j = 0;
+            for (int i = 0; i < precos; i++) {
+                if (alterados.get(slotsPorPreco[i])) continue;
+                while (j < novos && centavos[ordem[j]] < precosOrdenados[i]) {
+                    precosNovos[total] = centavos[ordem[j]];
+                    slotsNovos[total++] = ordem[j++];
+                }
+                precosNovos[total] = precosOrdenados[i];
+                slotsNovos[total++] = slotsPorPreco[i];
+            }
+            while (j < novos) {
+                precosNovos[total] = centavos[ordem[j]];
+                slotsNovos[total++] = ordem[j++];
+            }
+
+            precosOrdenados = precosNovos;
+            slotsPorPreco = slotsNovos;
+            precos = total;
+            alterados.clear();
+        }
+
+        private BitSet faixaDePreco(Long minCentavos, Long maxCentavos) {
+            int inicio = minCentavos == null ? 0 : primeiroMaiorOuIgual(minCentavos);
+            int fim = maxCentavos == null ? precos : primeiroMaiorQue(maxCentavos);
+            BitSet faixa = new BitSet();
+            for (int i = inicio; i < fim; i++) {
+                faixa.set(slotsPorPreco[i]);
+            }
+            return faixa;
+        }
+
+        private int novoSlot(long id) {
+            int slot = livres.nextSetBit(0);
+            if (slot >= 0) {
+                livres.clear(slot);
+            } else {
+                if (slots == ids.length) {
+                    int capacidade = slots * 2;
+                    ids = Arrays.copyOf(ids, capacidade);
+                    centavos = Arrays.copyOf(centavos, capacidade);
+                    anos = Arrays.copyOf(anos, capacidade);
+                    marcas = Arrays.copyOf(marcas, capacidade);
+                    cores = Arrays.copyOf(cores, capacidade);
+                }
+                slot = slots++;
+            }
+            ids[slot] = id;
+            slotPorId.put(id, slot);
+            return slot;
+        }
+
+        // O preço antigo sai do array ordenado na próxima reordenação (o slot fica em alterados)
+        private void desindexar(int slot) {
+            if (marcas[slot] != null) porMarca.get(marcas[slot]).clear(slot);
+            if (cores[slot] != null) porCor.get(cores[slot]).clear(slot);
+            if (anos[slot] != SEM_ANO) porAno.get(anos[slot]).clear(slot);
+            marcas[slot] = null;
+            cores[slot] = null;
+            anos[slot] = SEM_ANO;
+            centavos[slot] = SEM_PRECO;
+            alterados.set(slot);
+        }
+
+        private int primeiroMaiorOuIgual(long valor) {
+            int baixo = 0, alto = precos;
+            while (baixo < alto) {
+                int meio = (baixo + alto) >>> 1;
+                if (precosOrdenados[meio] < valor) baixo = meio + 1; else alto = meio;
+            }
+            return baixo;
+        }
+
+        private int primeiroMaiorQue(long valor) {
+            int baixo = 0, alto = precos;
+            while (baixo < alto) {
+                int meio = (baixo + alto) >>> 1;
+                if (precosOrdenados[meio] <= valor) baixo = meio + 1; else alto = meio;
+            }
+            return baixo;
+        }
+    }
+}
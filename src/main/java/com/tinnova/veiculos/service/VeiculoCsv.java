@@ -0,0 +1,208 @@
+package com.tinnova.veiculos.service;
+
+import com.tinnova.veiculos.exception.ValidationException;
+import com.tinnova.veiculos.model.Veiculo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Leitura e escrita de veículos em CSV registro a registro, sem carregar o arquivo inteiro em memória.
+// Um registro pode ocupar várias linhas quando um campo entre aspas contém quebra de linha
+public final class VeiculoCsv {
+
+    public static final String CABECALHO = "id,veiculo,marca,modelo,ano,cor,placa,precoDolar,vendido";
+
+    private VeiculoCsv() {
+    }
+
+    // A primeira linha é o cabeçalho; as colunas podem vir em qualquer ordem.
+    // Um registro mal formatado gera ValidationException no hasNext()/next(), e a leitura pode continuar no seguinte.
+    // A mensagem não traz número de linha: quem importa identifica o registro pela posição (ErroImportacao.linha)
+    public static Iterator<Veiculo> ler(BufferedReader reader) {
+        Map<String, Integer> colunas = lerCabecalho(reader);
+
+        return new Iterator<>() {
+            private String proximoRegistro;
+            private boolean fim;
+
+            // Leitura sob demanda: um registro com aspas sem fechamento falha aqui sem levar o anterior junto
+            @Override
+            public boolean hasNext() {
+                while (!fim && (proximoRegistro == null || proximoRegistro.isBlank())) {
+                    proximoRegistro = lerRegistro(reader);
+                    fim = proximoRegistro == null;
+                }
+                return !fim;
+            }
+
+            @Override
+            public Veiculo next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String registro = proximoRegistro;
+                proximoRegistro = null;
+                return converter(registro, colunas);
+            }
+        };
+    }
+
+    public static void escreverCabecalho(Writer writer) throws IOException {
+        writer.write(CABECALHO);
+        writer.write('\n');
+    }
+
+    public static void escrever(Writer writer, Veiculo veiculo) throws IOException {
+        writer.write(String.valueOf(veiculo.getId()));
+        writer.write(',');
+        writer.write(texto(veiculo.getVeiculo()));
+        writer.write(',');
+        writer.write(texto(veiculo.getMarca()));
+        writer.write(',');
+        writer.write(texto(veiculo.getModelo()));
+        writer.write(',');
+        writer.write(veiculo.getAno() == null ? "" : veiculo.getAno().toString());
+        writer.write(',');
+        writer.write(texto(veiculo.getCor()));
+        writer.write(',');
+        writer.write(texto(veiculo.getPlaca()));
+        writer.write(',');
+        writer.write(veiculo.getPrecoDolar() == null ? "" : veiculo.getPrecoDolar().toPlainString());
+        writer.write(',');
+        writer.write(Boolean.toString(veiculo.isVendido()));
+        writer.write('\n');
+    }
+
+    // Campos com vírgula, aspas ou quebra de linha vão entre aspas (aspas internas duplicadas)
+    private static String texto(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    // Junta linhas enquanto houver aspas abertas: aspas duplicadas ("") não mudam a paridade, então uma contagem
+    // ímpar significa um campo que continua na próxima linha. A quebra dentro do campo volta como \n
+    private static String lerRegistro(BufferedReader reader) {
+        String linha = lerLinha(reader);
+        if (linha == null || linha.indexOf('"') < 0) {
+            return linha;
+        }
+        StringBuilder registro = new StringBuilder(linha);
+        int aspas = contarAspas(linha);
+        while (aspas % 2 != 0) {
+            String continuacao = lerLinha(reader);
+            if (continuacao == null) {
+                throw new ValidationException("Campo entre aspas sem fechamento até o fim do arquivo.");
+            }
+            registro.append('\n').append(continuacao);
+            aspas += contarAspas(continuacao);
+        }
+        return registro.toString();
+    }
+
+    private static int contarAspas(String linha) {
+        int aspas = 0;
+        for (int i = 0; i < linha.length(); i++) {
+            if (linha.charAt(i) == '"') aspas++;
+        }
+        return aspas;
+    }
+
+    private static String[] dividir(String linha) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        campos.add(atual.toString());
+        return campos.toArray(String[]::new);
+    }
+
+    private static Map<String, Integer> lerCabecalho(BufferedReader reader) {
+        String cabecalho = lerRegistro(reader);
+        if (cabecalho == null || cabecalho.isBlank()) {
+            throw new ValidationException("Arquivo CSV sem cabeçalho.");
+        }
+        Map<String, Integer> colunas = new HashMap<>();
+        String[] nomes = dividir(cabecalho);
+        for (int i = 0; i < nomes.length; i++) {
+            colunas.put(nomes[i].trim(), i);
+        }
+        if (!colunas.containsKey("placa")) {
+            throw new ValidationException("O cabeçalho do CSV precisa da coluna placa.");
+        }
+        return colunas;
+    }
+
+    private static Veiculo converter(String registro, Map<String, Integer> colunas) {
+        String[] valores = dividir(registro);
+        try {
+            Veiculo veiculo = new Veiculo();
+            veiculo.setVeiculo(valor(valores, colunas, "veiculo"));
+            veiculo.setMarca(valor(valores, colunas, "marca"));
+            veiculo.setModelo(valor(valores, colunas, "modelo"));
+            veiculo.setCor(valor(valores, colunas, "cor"));
+            veiculo.setPlaca(valor(valores, colunas, "placa"));
+
+            String ano = valor(valores, colunas, "ano");
+            veiculo.setAno(ano == null ? null : Integer.valueOf(ano));
+
+            String preco = valor(valores, colunas, "precoDolar");
+            veiculo.setPrecoDolar(preco == null ? null : new BigDecimal(preco));
+
+            veiculo.setVendido(Boolean.parseBoolean(valor(valores, colunas, "vendido")));
+            return veiculo;
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Valor numérico inválido: " + e.getMessage());
+        }
+    }
+
+    private static String valor(String[] valores, Map<String, Integer> colunas, String coluna) {
+        Integer indice = colunas.get(coluna);
+        if (indice == null || indice >= valores.length) {
+            return null;
+        }
+        String valor = valores[indice].trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private static String lerLinha(BufferedReader reader) {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
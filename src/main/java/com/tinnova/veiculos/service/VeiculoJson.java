@@ -0,0 +1,95 @@
+package com.tinnova.veiculos.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinnova.veiculos.exception.RequisicaoInvalidaException;
+import com.tinnova.veiculos.exception.ValidationException;
+import com.tinnova.veiculos.model.Veiculo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Leitura de uma lista JSON de veículos elemento a elemento (JsonParser + MappingIterator), como o VeiculoCsv:
+// a memória não depende do tamanho do arquivo e cada lote da importação é gravado enquanto o resto ainda chega
+public final class VeiculoJson {
+
+    private VeiculoJson() {
+    }
+
+    // O corpo precisa ser uma lista; qualquer outra coisa é recusada antes de gravar o primeiro lote.
+    // Um elemento que não converte para Veiculo gera ValidationException no next() e a leitura segue no próximo.
+    // JSON mal formado não tem como ser retomado: gera ValidationException e encerra a leitura
+    public static Iterator<Veiculo> ler(ObjectMapper objectMapper, InputStream entrada) throws IOException {
+        JsonParser parser = objectMapper.createParser(entrada);
+        JsonToken primeiro;
+        try {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new RequisicaoInvalidaException("A importação JSON espera uma lista de veículos.");
+            }
+            primeiro = parser.nextToken();
+        } catch (JsonParseException e) {
+            throw new RequisicaoInvalidaException("JSON mal formado: " + e.getOriginalMessage());
+        }
+        if (primeiro == JsonToken.END_ARRAY) {
+            return Collections.emptyIterator();
+        }
+        MappingIterator<Veiculo> registros = objectMapper.readerFor(Veiculo.class).readValues(parser);
+
+        return new Iterator<>() {
+            private boolean fim;
+
+            @Override
+            public boolean hasNext() {
+                if (fim) {
+                    return false;
+                }
+                try {
+                    return registros.hasNextValue();
+                } catch (IOException e) {
+                    throw falha(e);
+                }
+            }
+
+            @Override
+            public Veiculo next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return registros.nextValue();
+                } catch (IOException e) {
+                    throw falha(e);
+                }
+            }
+
+            // Depois de um erro de conversão o MappingIterator pula o resto do elemento; nos demais casos, para
+            private RuntimeException falha(IOException e) {
+                if (e instanceof JsonMappingException mapeamento) {
+                    return new ValidationException(mensagem(mapeamento));
+                }
+                fim = true;
+                if (e instanceof JsonParseException sintaxe) {
+                    return new ValidationException("JSON mal formado: " + sintaxe.getOriginalMessage());
+                }
+                return new UncheckedIOException(e);
+            }
+        };
+    }
+
+    // Validações do próprio Veiculo (preço fora da faixa, por exemplo) chegam embrulhadas pelo Jackson
+    private static String mensagem(JsonMappingException e) {
+        Throwable causa = e.getCause();
+        if (causa instanceof ValidationException || causa instanceof RequisicaoInvalidaException) {
+            return causa.getMessage();
+        }
+        return "Registro inválido: " + e.getOriginalMessage();
+    }
+}
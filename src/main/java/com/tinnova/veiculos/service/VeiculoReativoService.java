@@ -0,0 +1,94 @@
+package com.tinnova.veiculos.service;
+
+import com.tinnova.veiculos.dto.VeiculoDetalhe;
+import com.tinnova.veiculos.dto.VeiculoResumo;
+import com.tinnova.veiculos.exception.ResourceNotFoundException;
+import com.tinnova.veiculos.model.VeiculoLeitura;
+import com.tinnova.veiculos.repository.ContagemMarca;
+import com.tinnova.veiculos.repository.reativo.VeiculoLeituraRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+// Leituras sem bloqueio: R2DBC para o banco e a cotação pelo caminho assíncrono do CambioService.
+// Nenhuma thread fica parada esperando I/O, ao contrário do VeiculoService (JPA/JDBC)
+@Service
+@ConditionalOnProperty(name = "veiculos.reativo.habilitado", havingValue = "true")
+public class VeiculoReativoService {
+
+    private final VeiculoLeituraRepository repository;
+    private final R2dbcEntityTemplate template;
+    private final CambioService cambioService;
+    private final ConversaoCambio conversaoCambio = new ConversaoCambio();
+
+    public VeiculoReativoService(VeiculoLeituraRepository repository, R2dbcEntityTemplate template,
+                                 CambioService cambioService) {
+        this.repository = repository;
+        this.template = template;
+        this.cambioService = cambioService;
+    }
+
+    public Mono<Page<VeiculoResumo>> findVeiculos(Pageable pageable) {
+        return repository.findByDeletedFalse(pageable)
+                .map(VeiculoLeitura::toResumo)
+                .collectList()
+                .zipWith(repository.countByDeletedFalse())
+                .map(t -> new PageImpl<>(t.getT1(), pageable, t.getT2()));
+    }
+
+    public Mono<VeiculoDetalhe> findVeiculoById(Long id) {
+        return repository.findByIdAndDeletedFalse(id)
+                .map(VeiculoLeitura::toDetalhe)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Veículo não encontrado com ID: " + id)));
+    }
+
+    public Mono<Page<VeiculoResumo>> searchVeiculos(String marca, Integer ano, String cor,
+                                                    BigDecimal minPrecoBRL, BigDecimal maxPrecoBRL, Pageable pageable) {
+        Mono<BigDecimal> cotacao = minPrecoBRL != null || maxPrecoBRL != null
+                ? cambioService.getCotacaoDolarBRLAsync()
+                : Mono.just(BigDecimal.ONE);
+
+        return cotacao.flatMap(cotacaoDolar -> {
+            Query query = Query.query(buildCriteria(marca, ano, cor, minPrecoBRL, maxPrecoBRL, cotacaoDolar));
+            return template.select(query.with(pageable), VeiculoLeitura.class)
+                    .map(VeiculoLeitura::toResumo)
+                    .collectList()
+                    .zipWith(template.count(query, VeiculoLeitura.class))
+                    .map(t -> new PageImpl<>(t.getT1(), pageable, t.getT2()));
+        });
+    }
+
+    public Mono<Map<String, Long>> getVeiculosCountByMarca() {
+        // Veículo sem marca não entra no relatório: chave nula no mapa quebra a serialização do JSON
+        return repository.countByMarca()
+                .filter(c -> c.marca() != null)
+                .collectMap(ContagemMarca::marca, ContagemMarca::total);
+    }
+
+    private Criteria buildCriteria(String marca, Integer ano, String cor,
+                                   BigDecimal minPrecoBRL, BigDecimal maxPrecoBRL, BigDecimal cotacaoDolar) {
+        Criteria criteria = Criteria.where("deleted").isFalse();
+
+        if (marca != null) criteria = criteria.and("marca").is(marca);
+        if (ano != null) criteria = criteria.and("ano").is(ano);
+        if (cor != null) criteria = criteria.and("cor").is(cor);
+
+        // Preço armazenado em USD: os limites em BRL viram centavos de dólar, como no VeiculoService
+        if (minPrecoBRL != null) {
+            criteria = criteria.and("precoCentavos").greaterThanOrEquals(conversaoCambio.centavosDolar(minPrecoBRL, cotacaoDolar));
+        }
+        if (maxPrecoBRL != null) {
+            criteria = criteria.and("precoCentavos").lessThanOrEquals(conversaoCambio.centavosDolar(maxPrecoBRL, cotacaoDolar));
+        }
+        return criteria;
+    }
+}
@@ -1,43 +1,335 @@
 package com.tinnova.veiculos.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinnova.veiculos.dto.ErroImportacao;
+import com.tinnova.veiculos.dto.EventoVeiculo;
+import com.tinnova.veiculos.dto.AlteracaoVeiculo;
+import com.tinnova.veiculos.dto.PaginaAlteracoes;
+import com.tinnova.veiculos.dto.PaginaCursor;
+import com.tinnova.veiculos.dto.TipoAlteracao;
+import com.tinnova.veiculos.dto.TipoEvento;
+import com.tinnova.veiculos.dto.VeiculoDetalhe;
+import com.tinnova.veiculos.dto.VeiculoResumo;
+import com.tinnova.veiculos.dto.ResultadoImportacao;
 import com.tinnova.veiculos.exception.ResourceNotFoundException;
+import com.tinnova.veiculos.exception.RequisicaoInvalidaException;
 import com.tinnova.veiculos.exception.ValidationException;
 import com.tinnova.veiculos.model.Veiculo;
+import com.tinnova.veiculos.repository.ContagemMarca;
 import com.tinnova.veiculos.repository.VeiculoRepository;
+import com.tinnova.veiculos.repository.VersaoColecao;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 @Service
 public class VeiculoService {
 
+    private static final Logger log = LoggerFactory.getLogger(VeiculoService.class);
+
     @Autowired
     private VeiculoRepository veiculoRepository;
 
     @Autowired
     private CambioService cambioService;
 
-    
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Transação por lote da importação
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Eventos de escrita repassados pelo EventoVeiculoService aos clientes SSE, depois do commit
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Índice em memória dos filtros da busca; só existe com veiculos.indice.habilitado=true
+    @Autowired(required = false)
+    private IndiceVeiculos indiceVeiculos;
+
+    // Cache do detalhe por id (local + Redis); toda escrita sobre um veículo existente remove só a sua entrada
+    public static final String CACHE_VEICULOS = "veiculos";
+
+    // Registros por lote: uma consulta de placas e um flush/clear do contexto a cada lote
+    private static final int TAMANHO_LOTE_IMPORTACAO = 500;
+
+    // Contagem por marca em memória: carregada por um GROUP BY e ajustada depois do commit de cada escrita deste
+    // nó (+1/-1 na marca). O GROUP BY só volta a rodar na reconciliação periódica, que traz as escritas dos outros
+    // nós e corrige a deriva de um ajuste que cruze com a própria recarga. null enquanto não foi carregada
+    private volatile ConcurrentHashMap<String, Long> contagemPorMarca;
+    private final ReentrantLock cargaContagem = new ReentrantLock();
+
+    // Limites de preço da busca já convertidos para centavos de dólar, memorizados por cotação
+    private final ConversaoCambio conversaoCambio = new ConversaoCambio();
+
+    // saveAndFlush para o índice único de placa falhar aqui dentro, e não só no commit
+    @Transactional
     public Veiculo createVeiculo(Veiculo veiculo) {
+        long inicio = System.nanoTime();
         if (veiculoRepository.existsByPlacaAndDeletedFalse(veiculo.getPlaca())) {
             throw new ValidationException("Veículo com a placa " + veiculo.getPlaca() + " já existe.");
         }
-        return veiculoRepository.save(veiculo);
+        prepararNovo(veiculo);
+        veiculo.setAlteracao(veiculoRepository.registrarAlteracao());
+        Veiculo salvo;
+        try {
+            salvo = veiculoRepository.saveAndFlush(veiculo);
+        } catch (DataIntegrityViolationException e) {
+            // Outra requisição gravou a mesma placa entre o exists e o save: o índice único barra
+            throw new ValidationException("Veículo com a placa " + veiculo.getPlaca() + " já existe.");
+        }
+        ajustarContagem(salvo.getMarca(), 1);
+        publicarEvento(TipoEvento.CRIADO, salvo);
+        logEscrita("Veículo criado", salvo, inicio);
+        return salvo;
+    }
+
+    // Importação em massa: placas checadas por lote em uma consulta, INSERTs em batch e o contexto
+    // de persistência limpo a cada lote para a memória não crescer com o tamanho do arquivo. Cada lote é
+    // uma transação: um erro no banco afeta só o seu lote, e os lotes anteriores continuam gravados
+    public ResultadoImportacao importarVeiculos(Iterator<Veiculo> veiculos) {
+        long inicio = System.nanoTime();
+        List<ErroImportacao> erros = new ArrayList<>();
+        Set<String> placasDoArquivo = new HashSet<>();
+        List<LinhaImportacao> lote = new ArrayList<>(TAMANHO_LOTE_IMPORTACAO);
+        int linha = 0;
+        int importados = 0;
+
+        while (true) {
+            linha++;
+            Veiculo veiculo;
+            try {
+                if (!veiculos.hasNext()) break;
+                veiculo = veiculos.next();
+            } catch (ValidationException | RequisicaoInvalidaException e) {
+                erros.add(new ErroImportacao(linha, null, e.getMessage()));
+                continue;
+            }
+
+            String placa = veiculo.getPlaca();
+            if (placa == null || placa.isBlank()) {
+                erros.add(new ErroImportacao(linha, placa, "A placa é obrigatória."));
+                continue;
+            }
+            if (!placasDoArquivo.add(placa)) {
+                erros.add(new ErroImportacao(linha, placa, "Placa repetida no arquivo."));
+                continue;
+            }
+
+            lote.add(new LinhaImportacao(linha, veiculo));
+            if (lote.size() == TAMANHO_LOTE_IMPORTACAO) {
+                importados += gravarLote(lote, erros);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            importados += gravarLote(lote, erros);
+        }
+
+        try (MDC.MDCCloseable total = MDC.putCloseable("linhas", String.valueOf(linha - 1));
+             MDC.MDCCloseable gravados = MDC.putCloseable("importados", String.valueOf(importados));
+             MDC.MDCCloseable comErro = MDC.putCloseable("erros", String.valueOf(erros.size()));
+             MDC.MDCCloseable duracao = MDC.putCloseable("duracaoMs", duracaoMs(inicio))) {
+            log.info("Importação de veículos concluída");
+        }
+        return new ResultadoImportacao(linha - 1, importados, erros);
+    }
+
+    private int gravarLote(List<LinhaImportacao> lote, List<ErroImportacao> erros) {
+        try {
+            return transactionTemplate.execute(status -> inserirLote(lote, erros));
+        } catch (DataIntegrityViolationException e) {
+            // Outra requisição gravou uma das placas entre a checagem e o INSERT: o lote é refeito registro
+            // a registro, cada um na sua transação, para só o conflitante ficar de fora
+            int gravados = 0;
+            for (LinhaImportacao l : lote) {
+                try {
+                    gravados += transactionTemplate.execute(status -> inserirLote(List.of(l), erros));
+                } catch (DataIntegrityViolationException ex) {
+                    erros.add(new ErroImportacao(l.linha(), l.veiculo().getPlaca(),
+                            "Veículo com a placa " + l.veiculo().getPlaca() + " já existe."));
+                }
+            }
+            return gravados;
+        }
+    }
+
+    // Erros só entram no resultado depois do flush, para um lote refeito não os repetir
+    private int inserirLote(List<LinhaImportacao> lote, List<ErroImportacao> erros) {
+        List<ErroImportacao> errosDoLote = new ArrayList<>();
+        Set<String> existentes = new HashSet<>(veiculoRepository.findPlacasExistentes(
+                lote.stream().map(l -> l.veiculo().getPlaca()).toList()));
+
+        long alteracao = veiculoRepository.registrarAlteracao();
+        List<Veiculo> novos = new ArrayList<>(lote.size());
+        for (LinhaImportacao l : lote) {
+            Veiculo veiculo = l.veiculo();
+            if (existentes.contains(veiculo.getPlaca())) {
+                errosDoLote.add(new ErroImportacao(l.linha(), veiculo.getPlaca(),
+                        "Veículo com a placa " + veiculo.getPlaca() + " já existe."));
+                continue;
+            }
+            prepararNovo(veiculo);
+            veiculo.setAlteracao(alteracao);
+            novos.add(veiculo);
+        }
+
+        // flush pelo repositório: uma violação do índice único chega como DataIntegrityViolationException
+        veiculoRepository.saveAll(novos);
+        veiculoRepository.flush();
+        entityManager.clear();
+
+        erros.addAll(errosDoLote);
+        novos.forEach(v -> {
+            ajustarContagem(v.getMarca(), 1);
+            publicarEvento(TipoEvento.CRIADO, v);
+        });
+        return novos.size();
+    }
+
+    private record LinhaImportacao(int linha, Veiculo veiculo) {}
+
+    // Um veículo novo nunca herda identidade do corpo ou do arquivo (a exportação NDJSON traz id e versao):
+    // com id ou versao preenchidos o save faria merge em vez de persist, e a instância gravada ficaria sem id
+    private void prepararNovo(Veiculo veiculo) {
+        veiculo.setId(null);
+        veiculo.setVersao(null);
+        veiculo.setCreated(null);
+        veiculo.setUpdated(null);
+        veiculo.setDeleted(false);
+    }
+
+    // Exportação da frota inteira direto para a resposta: cada veículo é escrito e descartado do
+    // contexto de persistência, então a memória não depende do tamanho da frota
+    @Transactional(readOnly = true)
+    public void exportarVeiculos(FormatoExportacao formato, OutputStream saida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        if (formato == FormatoExportacao.CSV) {
+            VeiculoCsv.escreverCabecalho(writer);
+        }
+
+        try (Stream<Veiculo> veiculos = veiculoRepository.streamAll()) {
+            Iterator<Veiculo> it = veiculos.iterator();
+            while (it.hasNext()) {
+                Veiculo veiculo = it.next();
+                if (formato == FormatoExportacao.CSV) {
+                    VeiculoCsv.escrever(writer, veiculo);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(veiculo));
+                    writer.write('\n');
+                }
+                entityManager.detach(veiculo);
+            }
+        }
+        writer.flush();
     }
 
     public List<Veiculo> findAllVeiculos() {
         return veiculoRepository.findAll(); 
     }
 
-    public Page<Veiculo> findVeiculosWithPaginationAndSorting(Pageable pageable) {
-        return veiculoRepository.findAll(pageable); 
+    @Transactional(readOnly = true)
+    public Page<VeiculoResumo> findVeiculosWithPaginationAndSorting(Pageable pageable) {
+        return veiculoRepository.findResumos(pageable);
+    }
+
+    // Keyset: busca size + 1 linhas a partir do id informado só para saber se existe próxima página.
+    // Sem cursor, a primeira página começa do início da ordenação pedida
+    @Transactional(readOnly = true)
+    public PaginaCursor<VeiculoResumo> findVeiculosAfter(Long after, int size, boolean desc) {
+        Pageable limite = PageRequest.of(0, size + 1);
+        List<VeiculoResumo> linhas = desc
+                ? veiculoRepository.findResumosBefore(after != null ? after : Long.MAX_VALUE, limite)
+                : veiculoRepository.findResumosAfter(after != null ? after : 0L, limite);
+
+        boolean hasNext = linhas.size() > size;
+        List<VeiculoResumo> content = hasNext ? linhas.subList(0, size) : linhas;
+        Long nextCursor = content.isEmpty() ? after : content.get(content.size() - 1).id();
+        return new PaginaCursor<>(content, size, nextCursor, hasNext);
+    }
+
+    // Feed incremental: custo proporcional às alterações desde o cursor, não ao tamanho da frota. O cursor é o
+    // número de alteração (seq_alteracao); o feed para na marca d'água, até a qual nenhum número novo pode aparecer
+    @Transactional(readOnly = true)
+    public PaginaAlteracoes findAlteracoes(long since, long afterId, int size) {
+        long ate = veiculoRepository.findVersaoColecao().alteracao();
+        List<Veiculo> linhas = veiculoRepository.findAlteracoes(since, afterId, ate, size + 1);
+
+        boolean hasNext = linhas.size() > size;
+        List<AlteracaoVeiculo> content = (hasNext ? linhas.subList(0, size) : linhas).stream()
+                .map(this::toAlteracao)
+                .toList();
+        if (content.isEmpty()) {
+            return new PaginaAlteracoes(content, size, since, afterId, false);
+        }
+        AlteracaoVeiculo ultima = content.get(content.size() - 1);
+        return new PaginaAlteracoes(content, size, ultima.alteracao(), ultima.id(), hasNext);
+    }
+
+    private AlteracaoVeiculo toAlteracao(Veiculo v) {
+        TipoAlteracao tipo = v.isDeleted() ? TipoAlteracao.REMOVIDO
+                : Long.valueOf(0).equals(v.getVersao()) ? TipoAlteracao.CRIADO
+                : TipoAlteracao.ATUALIZADO;
+        return new AlteracaoVeiculo(tipo, v.getId(), v.getVeiculo(), v.getMarca(), v.getModelo(), v.getAno(), v.getCor(),
+                v.getPlaca(), v.getPrecoDolar(), v.isVendido(), v.getUpdated(), v.getVersao(), v.getAlteracao());
+    }
+
+    @Cacheable(cacheNames = CACHE_VEICULOS, key = "#id", sync = true)
+    @Transactional(readOnly = true)
+    public VeiculoDetalhe findVeiculoDetalheById(Long id) {
+        return veiculoRepository.findDetalheById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Veículo não encontrado com ID: " + id));
     }
 
     public Veiculo findVeiculoById(Long id) {
@@ -45,50 +337,327 @@ public class VeiculoService {
                 .orElseThrow(() -> new ResourceNotFoundException("Veículo não encontrado com ID: " + id));
     }
 
+    // Na mesma transação da leitura: o save não faz um novo SELECT (merge) e o flush usa o dirty-checking
+    @CacheEvict(cacheNames = CACHE_VEICULOS, key = "#id")
+    @Transactional
     public Veiculo updateVeiculo(Long id, Veiculo veiculoDetails) {
+        long inicio = System.nanoTime();
         Veiculo veiculo = findVeiculoById(id);
+        verificarVersao(veiculo, veiculoDetails.getVersao());
+        boolean vendidoAnterior = veiculo.isVendido();
+        String marcaAnterior = veiculo.getMarca();
 
-
+        veiculo.setAlteracao(veiculoRepository.registrarAlteracao());
         veiculo.setPrecoDolar(veiculoDetails.getPrecoDolar());
         veiculo.setMarca(veiculoDetails.getMarca());
         veiculo.setVendido(veiculoDetails.isVendido());
         veiculo.setCor(veiculoDetails.getCor());
         veiculo.setModelo(veiculoDetails.getModelo());
-        return veiculoRepository.save(veiculo);
+        Veiculo salvo = veiculoRepository.save(veiculo);
+        trocarMarcaNaContagem(marcaAnterior, salvo.getMarca());
+        publicarEvento(tipoAtualizacao(vendidoAnterior, salvo), salvo);
+        logEscrita("Veículo atualizado", salvo, inicio);
+        return salvo;
     }
 
-    
+    // Aplica apenas os campos enviados, restritos aos mesmos que o PUT permite alterar. Com @DynamicUpdate
+    // o UPDATE gerado leva só essas colunas (mais updated, versao e alteracao). Se o corpo trouxer "versao", ela
+    // precisa ser a atual; sem ela, vale a versão lida aqui e a concorrência é pega no próprio UPDATE.
+    @CacheEvict(cacheNames = CACHE_VEICULOS, key = "#id")
+    @Transactional
+    public Veiculo patchVeiculo(Long id, Map<String, Object> campos) {
+        long inicio = System.nanoTime();
+        Veiculo veiculo = findVeiculoById(id);
+        boolean vendidoAnterior = veiculo.isVendido();
+        String marcaAnterior = veiculo.getMarca();
+
+        veiculo.setAlteracao(veiculoRepository.registrarAlteracao());
+        campos.forEach((campo, valor) -> {
+            if (campo.equals("versao")) {
+                verificarVersao(veiculo, valor == null ? null : versao(valor));
+            } else {
+                aplicarCampo(veiculo, campo, valor);
+            }
+        });
+        Veiculo salvo = veiculoRepository.save(veiculo);
+        trocarMarcaNaContagem(marcaAnterior, salvo.getMarca());
+        publicarEvento(tipoAtualizacao(vendidoAnterior, salvo), salvo);
+        logEscrita("Veículo atualizado", salvo, inicio);
+        return salvo;
+    }
+
+    // Soft delete como qualquer outra escrita: um UPDATE com o número de alteração da transação e a versão
+    @CacheEvict(cacheNames = CACHE_VEICULOS, key = "#id")
+    @Transactional
     public void deleteVeiculo(Long id) {
+        long inicio = System.nanoTime();
         Veiculo veiculo = findVeiculoById(id);
-        veiculoRepository.deleteById(id);
+        veiculo.setAlteracao(veiculoRepository.registrarAlteracao());
+        veiculo.setDeleted(true);
+        Veiculo removido = veiculoRepository.save(veiculo);
+        ajustarContagem(removido.getMarca(), -1);
+        publicarEvento(TipoEvento.REMOVIDO, removido);
+        logEscrita("Veículo removido", removido, inicio);
     }
 
-    
     public Map<String, Long> getVeiculosCountByMarca() {
-        return veiculoRepository.findAll().stream()
-                .collect(Collectors.groupingBy(Veiculo::getMarca, Collectors.counting()));
+        ConcurrentHashMap<String, Long> totais = contagemPorMarca;
+        if (totais == null) {
+            cargaContagem.lock();
+            try {
+                totais = contagemPorMarca;
+                if (totais == null) {
+                    totais = carregarContagemPorMarca();
+                }
+            } finally {
+                cargaContagem.unlock();
+            }
+        }
+        return Map.copyOf(totais);
+    }
+
+    // Grava a marca d'água em contador_alteracoes e limpa os números já cobertos por ela; parada, é uma leitura só
+    @Scheduled(fixedDelayString = "${veiculos.alteracoes.consolidacao-ms:1000}")
+    public void consolidarAlteracoes() {
+        veiculoRepository.consolidarAlteracoes();
+    }
+
+    // Reconciliação periódica; um nó que nunca serviu o relatório não paga o GROUP BY
+    @Scheduled(initialDelayString = "${veiculos.contagem-marca.reconciliacao-ms:60000}",
+            fixedDelayString = "${veiculos.contagem-marca.reconciliacao-ms:60000}")
+    public void reconciliarContagemPorMarca() {
+        if (contagemPorMarca != null) {
+            recarregarContagemPorMarca();
+        }
+    }
+
+    // Refaz o GROUP BY e troca a contagem inteira
+    public void recarregarContagemPorMarca() {
+        cargaContagem.lock();
+        try {
+            carregarContagemPorMarca();
+        } finally {
+            cargaContagem.unlock();
+        }
+    }
+
+    private ConcurrentHashMap<String, Long> carregarContagemPorMarca() {
+        ConcurrentHashMap<String, Long> totais = new ConcurrentHashMap<>();
+        for (ContagemMarca linha : veiculoRepository.countByMarca()) {
+            if (linha.marca() == null || linha.total() == 0) continue;
+            totais.put(linha.marca(), linha.total());
+        }
+        contagemPorMarca = totais;
+        return totais;
+    }
+
+    private void trocarMarcaNaContagem(String marcaAnterior, String marcaNova) {
+        if (!Objects.equals(marcaAnterior, marcaNova)) {
+            ajustarContagem(marcaAnterior, -1);
+            ajustarContagem(marcaNova, 1);
+        }
+    }
+
+    // O ajuste só vale depois do commit: uma escrita desfeita não mexe na contagem
+    private void ajustarContagem(String marca, long delta) {
+        if (marca == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicarAjusteContagem(marca, delta);
+                }
+            });
+        } else {
+            aplicarAjusteContagem(marca, delta);
+        }
+    }
+
+    // Sem contagem carregada não há o que ajustar: a primeira leitura já vem do banco
+    private void aplicarAjusteContagem(String marca, long delta) {
+        ConcurrentHashMap<String, Long> totais = contagemPorMarca;
+        if (totais != null) {
+            totais.merge(marca, delta, (atual, ajuste) -> atual + ajuste == 0 ? null : atual + ajuste);
+        }
+    }
+
+    // A venda é a transição que os painéis mais acompanham, então ganha um tipo próprio
+    private TipoEvento tipoAtualizacao(boolean vendidoAnterior, Veiculo veiculo) {
+        return !vendidoAnterior && veiculo.isVendido() ? TipoEvento.VENDIDO : TipoEvento.ATUALIZADO;
+    }
+
+    // Uma linha em INFO por escrita, com id, marca e duração no MDC (impresso por logging.pattern.level) em vez de
+    // concatenados na mensagem: um agregador filtra por campo sem precisar interpretar o texto
+    private void logEscrita(String mensagem, Veiculo v, long inicio) {
+        try (MDC.MDCCloseable id = MDC.putCloseable("id", String.valueOf(v.getId()));
+             MDC.MDCCloseable marca = MDC.putCloseable("marca", String.valueOf(v.getMarca()));
+             MDC.MDCCloseable duracao = MDC.putCloseable("duracaoMs", duracaoMs(inicio))) {
+            log.info(mensagem);
+        }
+    }
+
+    private static String duracaoMs(long inicio) {
+        return String.format(Locale.ROOT, "%.3f", (System.nanoTime() - inicio) / 1_000_000.0);
+    }
+
+    private void publicarEvento(TipoEvento tipo, Veiculo v) {
+        eventPublisher.publishEvent(new EventoVeiculo(tipo, new VeiculoResumo(v.getId(), v.getVeiculo(), v.getMarca(),
+                v.getModelo(), v.getAno(), v.getCor(), v.getPlaca(), v.getPrecoDolar(), v.isVendido()), Instant.now(),
+                v.getAlteracao()));
+    }
+
+    private void verificarVersao(Veiculo veiculo, Long versaoEsperada) {
+        if (versaoEsperada != null && !versaoEsperada.equals(veiculo.getVersao())) {
+            throw new ObjectOptimisticLockingFailureException(Veiculo.class, veiculo.getId());
+        }
+    }
+
+    private Long versao(Object valor) {
+        try {
+            return Long.valueOf(valor.toString());
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Valor inválido para o campo versao: " + valor);
+        }
+    }
+
+    private void aplicarCampo(Veiculo veiculo, String campo, Object valor) {
+        try {
+            switch (campo) {
+                case "marca" -> veiculo.setMarca(valor == null ? null : valor.toString());
+                case "modelo" -> veiculo.setModelo(valor == null ? null : valor.toString());
+                case "cor" -> veiculo.setCor(valor == null ? null : valor.toString());
+                case "precoDolar" -> veiculo.setPrecoDolar(valor == null ? null : new BigDecimal(valor.toString()));
+                case "vendido" -> {
+                    if (valor == null) throw new ValidationException("O campo vendido não pode ser nulo.");
+                    veiculo.setVendido(Boolean.parseBoolean(valor.toString()));
+                }
+                default -> throw new ValidationException("Campo não pode ser alterado: " + campo);
+            }
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Valor inválido para o campo " + campo + ": " + valor);
+        }
     }
 
    
-    public List<Veiculo> searchVeiculos(String marca, Integer ano, String cor, BigDecimal minPrecoBRL, BigDecimal maxPrecoBRL) {
-        Specification<Veiculo> spec = Specification.where(null);
+    @Transactional(readOnly = true)
+    public VersaoColecao findVersaoColecao() {
+        return veiculoRepository.findVersaoColecao();
+    }
+
+    // Cotação usada no precoReal das respostas (mesma cotação em memória dos filtros de preço)
+    public BigDecimal getCotacaoDolar() {
+        return cambioService.getCotacaoDolarBRL();
+    }
+
+    public Mono<BigDecimal> getCotacaoDolarAsync() {
+        return cambioService.getCotacaoDolarBRLAsync();
+    }
 
-        // Conversão de BRL para Dólar para o filtro (Preço é armazenado em USD)
-        BigDecimal cotacaoDolar = cambioService.getCotacaoDolarBRL();
+    // Versão de uma busca: a da coleção mais, se houver filtro de preço, a cotação que a conversão vai usar.
+    // Com o índice em dia, a versão é a que ele já aplicou: a busca que ele responder nunca fica atrás do ETag
+    public Mono<String> versaoBusca(BigDecimal minPrecoBRL, BigDecimal maxPrecoBRL) {
+        Mono<String> cotacao = temFiltroPreco(minPrecoBRL, maxPrecoBRL)
+                ? cambioService.getCotacaoDolarBRLAsync().map(valor -> "-" + valor.toPlainString())
+                : Mono.just("");
 
-        if (marca != null) spec = spec.and((root, query, cb) -> cb.equal(root.get("marca"), marca));
-        if (ano != null) spec = spec.and((root, query, cb) -> cb.equal(root.get("ano"), ano));
-        if (cor != null) spec = spec.and((root, query, cb) -> cb.equal(root.get("cor"), cor));
+        return cotacao
+                .publishOn(Schedulers.boundedElastic())
+                .map(sufixo -> versaoDosDados() + sufixo);
+    }
 
-        if (minPrecoBRL != null) {
-            BigDecimal minPrecoDolar = minPrecoBRL.divide(cotacaoDolar, 2, BigDecimal.ROUND_HALF_UP);
-            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("precoDolar"), minPrecoDolar));
+    private String versaoDosDados() {
+        if (indiceVeiculos != null) {
+            OptionalLong versaoIndice = indiceVeiculos.versao();
+            if (versaoIndice.isPresent()) {
+                return String.valueOf(versaoIndice.getAsLong());
+            }
         }
-        if (maxPrecoBRL != null) {
-            BigDecimal maxPrecoDolar = maxPrecoBRL.divide(cotacaoDolar, 2, BigDecimal.ROUND_HALF_UP);
-            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("precoDolar"), maxPrecoDolar));
+        return veiculoRepository.findVersaoColecao().tag();
+    }
+
+    // Busca paginada; com contar = false devolve um Slice (size + 1 linhas) sem o COUNT(*) da Page
+    @Transactional(readOnly = true)
+    public Slice<VeiculoResumo> searchVeiculos(String marca, Integer ano, String cor, BigDecimal minPrecoBRL, BigDecimal maxPrecoBRL,
+                                                Pageable pageable, boolean contar) {
+        // Conversão de BRL para Dólar para o filtro (Preço é armazenado em USD); só consulta a cotação se houver filtro de preço
+        BigDecimal cotacaoDolar = temFiltroPreco(minPrecoBRL, maxPrecoBRL) ? cambioService.getCotacaoDolarBRL() : null;
+        return buscarPagina(marca, ano, cor, minPrecoBRL, maxPrecoBRL, cotacaoDolar, pageable, contar);
+    }
+
+    // Mesma busca sem prender a thread da requisição enquanto a cotação é obtida; a consulta JPA roda no boundedElastic
+    public Mono<Slice<VeiculoResumo>> searchVeiculosAsync(String marca, Integer ano, String cor, BigDecimal minPrecoBRL, BigDecimal maxPrecoBRL,
+                                                         Pageable pageable, boolean contar) {
+        Mono<Optional<BigDecimal>> cotacao = temFiltroPreco(minPrecoBRL, maxPrecoBRL)
+                ? cambioService.getCotacaoDolarBRLAsync().map(Optional::of)
+                : Mono.just(Optional.empty());
+
+        return cotacao
+                .publishOn(Schedulers.boundedElastic())
+                .map(cotacaoDolar -> buscarPagina(marca, ano, cor, minPrecoBRL, maxPrecoBRL, cotacaoDolar.orElse(null),
+                        pageable, contar));
+    }
+
+    // Com o índice pronto e ordenação só por id, os filtros são resolvidos em memória e o banco só carrega
+    // as linhas da página; qualquer outro caso (ou índice desligado/em carga) segue pela Specification
+    private Slice<VeiculoResumo> buscarPagina(String marca, Integer ano, String cor, BigDecimal minPrecoBRL, BigDecimal maxPrecoBRL,
+                                              BigDecimal cotacaoDolar, Pageable pageable, boolean contar) {
+        Optional<Sort.Direction> direcao = ordenacaoSoPorId(pageable.getSort());
+        if (indiceVeiculos != null && direcao.isPresent()) {
+            Long minCentavos = minPrecoBRL == null ? null : conversaoCambio.centavosDolar(minPrecoBRL, cotacaoDolar);
+            Long maxCentavos = maxPrecoBRL == null ? null : conversaoCambio.centavosDolar(maxPrecoBRL, cotacaoDolar);
+            Optional<long[]> ids = indiceVeiculos.buscar(marca, ano, cor, minCentavos, maxCentavos);
+            if (ids.isPresent()) {
+                return paginaDoIndice(ids.get(), direcao.get(), pageable, contar);
+            }
         }
+        return veiculoRepository.findResumos(
+                buildSpecification(marca, ano, cor, minPrecoBRL, maxPrecoBRL, cotacaoDolar), pageable, contar);
+    }
+
+    private Slice<VeiculoResumo> paginaDoIndice(long[] ids, Sort.Direction direcao, Pageable pageable, boolean contar) {
+        long inicio = Math.min(pageable.getOffset(), ids.length);
+        int fim = (int) Math.min(inicio + pageable.getPageSize(), ids.length);
+
+        List<Long> idsDaPagina = new ArrayList<>(fim - (int) inicio);
+        for (int i = (int) inicio; i < fim; i++) {
+            idsDaPagina.add(direcao.isAscending() ? ids[i] : ids[ids.length - 1 - i]);
+        }
+
+        List<VeiculoResumo> conteudo = idsDaPagina.isEmpty()
+                ? new ArrayList<>()
+                : new ArrayList<>(veiculoRepository.findResumosByIds(idsDaPagina));
+        if (direcao.isDescending()) {
+            Collections.reverse(conteudo);
+        }
+
+        return contar
+                ? new PageImpl<>(conteudo, pageable, ids.length)
+                : new SliceImpl<>(conteudo, pageable, fim < ids.length);
+    }
+
+    private Optional<Sort.Direction> ordenacaoSoPorId(Sort sort) {
+        if (sort.isUnsorted()) {
+            return Optional.of(Sort.Direction.ASC);
+        }
+        List<Sort.Order> ordens = sort.toList();
+        if (ordens.size() == 1 && ordens.get(0).getProperty().equals("id")) {
+            return Optional.of(ordens.get(0).getDirection());
+        }
+        return Optional.empty();
+    }
+
+
+    private boolean temFiltroPreco(BigDecimal minPrecoBRL, BigDecimal maxPrecoBRL) {
+        return minPrecoBRL != null || maxPrecoBRL != null;
+    }
 
-        return veiculoRepository.findAll(spec);
+    // Limites de preço convertidos uma vez por cotação (ConversaoCambio memoriza os centavos)
+    private Specification<Veiculo> buildSpecification(String marca, Integer ano, String cor,
+                                                      BigDecimal minPrecoBRL, BigDecimal maxPrecoBRL, BigDecimal cotacaoDolar) {
+        Long minCentavos = minPrecoBRL == null ? null : conversaoCambio.centavosDolar(minPrecoBRL, cotacaoDolar);
+        Long maxCentavos = maxPrecoBRL == null ? null : conversaoCambio.centavosDolar(maxPrecoBRL, cotacaoDolar);
+        return EspecificacaoVeiculo.filtros(marca, ano, cor, minCentavos, maxCentavos);
     }
 }
@@ -0,0 +1,28 @@
+-- Ids reservados de 50 em 50 (pooled optimizer do Hibernate)
+CREATE SEQUENCE veiculo_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE veiculo (
+    id          BIGINT        NOT NULL PRIMARY KEY,
+    veiculo     VARCHAR(255),
+    marca       VARCHAR(255),
+    modelo      VARCHAR(255),
+    ano         INTEGER,
+    cor         VARCHAR(255),
+    placa       VARCHAR(255),
+    preco_dolar NUMERIC(38, 2),
+    vendido     BOOLEAN       NOT NULL,
+    created     TIMESTAMP(6),
+    updated     TIMESTAMP(6),
+    deleted     BOOLEAN       DEFAULT FALSE NOT NULL,
+    -- O H2 não tem índice parcial: a placa só entra na unicidade enquanto o veículo não foi removido
+    placa_ativa VARCHAR(255)  GENERATED ALWAYS AS (CASE WHEN deleted THEN NULL ELSE placa END)
+);
+
+-- Duplicidade de placa resolvida pelo índice, sem a janela entre o exists e o save
+CREATE UNIQUE INDEX ux_veiculo_placa_ativa ON veiculo (placa_ativa);
+
+-- Filtros da busca e o GROUP BY do relatório, sempre combinados com deleted = false (@Where)
+CREATE INDEX ix_veiculo_deleted_marca_ano ON veiculo (deleted, marca, ano);
+CREATE INDEX ix_veiculo_deleted_ano ON veiculo (deleted, ano);
+CREATE INDEX ix_veiculo_deleted_cor ON veiculo (deleted, cor);
+CREATE INDEX ix_veiculo_deleted_preco_dolar ON veiculo (deleted, preco_dolar);
@@ -0,0 +1,2 @@
+-- Feed de alterações (GET /veiculos/changes): cursor (updated, id) sobre todas as linhas, inclusive as removidas
+CREATE INDEX ix_veiculo_updated_id ON veiculo (updated, id);
@@ -0,0 +1,5 @@
+-- Preço em centavos de dólar: os filtros de faixa da busca comparam inteiros em vez de NUMERIC
+ALTER TABLE veiculo ADD COLUMN preco_centavos BIGINT;
+UPDATE veiculo SET preco_centavos = ROUND(preco_dolar * 100) WHERE preco_dolar IS NOT NULL;
+
+CREATE INDEX ix_veiculo_deleted_preco_centavos ON veiculo (deleted, preco_centavos);
@@ -0,0 +1,15 @@
+-- Feed de alterações: cursor por um número de alteração em vez de (updated, id). Cada transação de escrita
+-- incrementa a linha única de contador_alteracoes e grava o novo valor em veiculo.alteracao; o bloqueio da linha
+-- vai até o commit, então os números saem na ordem dos commits e não dependem de relógio (JVM, banco ou nó)
+CREATE TABLE contador_alteracoes (
+    id         INTEGER      NOT NULL PRIMARY KEY,
+    valor      BIGINT       NOT NULL,
+    atualizado TIMESTAMP(6)
+);
+INSERT INTO contador_alteracoes (id, valor, atualizado) VALUES (1, 0, LOCALTIMESTAMP);
+
+-- Linhas já existentes ficam em 0: a primeira chamada do feed (since = 0, afterId = 0) ainda as percorre por id
+ALTER TABLE veiculo ADD COLUMN alteracao BIGINT DEFAULT 0 NOT NULL;
+
+DROP INDEX ix_veiculo_updated_id;
+CREATE INDEX ix_veiculo_alteracao_id ON veiculo (alteracao, id);
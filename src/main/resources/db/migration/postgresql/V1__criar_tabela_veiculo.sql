@@ -0,0 +1,24 @@
+-- Ids reservados de 50 em 50 (pooled optimizer do Hibernate)
+CREATE SEQUENCE veiculo_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE veiculo (
+    id          BIGINT        NOT NULL PRIMARY KEY,
+    veiculo     VARCHAR(255),
+    marca       VARCHAR(255),
+    modelo      VARCHAR(255),
+    ano         INTEGER,
+    cor         VARCHAR(255),
+    placa       VARCHAR(255),
+    preco_dolar NUMERIC(38, 2),
+    vendido     BOOLEAN       NOT NULL,
+    created     TIMESTAMP(6),
+    updated     TIMESTAMP(6),
+    deleted     BOOLEAN       DEFAULT FALSE NOT NULL
+);
+
+-- Índices parciais: só os veículos ativos (@Where deleted = false) entram, e a placa é única entre eles
+CREATE UNIQUE INDEX ux_veiculo_placa_ativa ON veiculo (placa) WHERE deleted = false;
+CREATE INDEX ix_veiculo_marca_ano ON veiculo (marca, ano) WHERE deleted = false;
+CREATE INDEX ix_veiculo_ano ON veiculo (ano) WHERE deleted = false;
+CREATE INDEX ix_veiculo_cor ON veiculo (cor) WHERE deleted = false;
+CREATE INDEX ix_veiculo_preco_dolar ON veiculo (preco_dolar) WHERE deleted = false;
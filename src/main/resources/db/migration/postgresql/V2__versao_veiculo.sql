@@ -0,0 +1,2 @@
+-- Versão para locking otimista (@Version): edições concorrentes do mesmo veículo falham com 409 em vez de se sobrescreverem
+ALTER TABLE veiculo ADD COLUMN versao BIGINT DEFAULT 0 NOT NULL;
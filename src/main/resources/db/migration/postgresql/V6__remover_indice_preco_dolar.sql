@@ -0,0 +1,2 @@
+-- Os filtros de preço usam só preco_centavos (V4); o índice antigo em preco_dolar só pesava nas escritas
+DROP INDEX IF EXISTS ix_veiculo_preco_dolar;
@@ -0,0 +1,14 @@
+-- Números de alteração saem de uma sequence em vez de incrementar a linha única de contador_alteracoes, que
+-- ficava bloqueada até o commit e serializava todos os escritores. Sem esse bloqueio, um número pode ficar
+-- visível antes de um menor: cada transação de escrita registra o seu em alteracoes, e quem lê calcula a
+-- marca d'água (maior número abaixo do qual todas as transações já terminaram) a partir desse registro.
+-- contador_alteracoes passa a guardar a marca d'água consolidada; alteracoes só guarda os números acima dela
+CREATE SEQUENCE seq_alteracao;
+SELECT setval('seq_alteracao', (SELECT valor + 1 FROM contador_alteracoes WHERE id = 1), false);
+
+-- descartada: número de uma transação que fez rollback (registrado depois, só para fechar a lacuna)
+CREATE TABLE alteracoes (
+    numero     BIGINT       NOT NULL PRIMARY KEY,
+    registrada TIMESTAMP(6) NOT NULL,
+    descartada BOOLEAN      DEFAULT FALSE NOT NULL
+);
@@ -79,6 +79,7 @@ function loginSuccess() {
 
     $('card-cadastrar').classList.toggle('hidden', !isAdmin());
     loadVeiculos();
+    assinarEventos();
 }
 
 function logout() {
@@ -87,6 +88,52 @@ function logout() {
     setTimeout(() => location.reload(), 800);
 }
 
+/* =====================
+   EVENTOS (SSE)
+===================== */
+let recargaAgendada = null;
+let ultimoEventoId = null;
+
+// EventSource não envia o header Authorization, então o stream de eventos é lido via fetch.
+// Na reconexão o id do último evento vai em Last-Event-ID e o servidor reenvia o que foi perdido
+async function assinarEventos() {
+    try {
+        const headers = authHeaders();
+        if (ultimoEventoId) headers['Last-Event-ID'] = ultimoEventoId;
+        const res = await fetch(`${API}/eventos`, { headers });
+        if (!res.ok) throw new Error();
+
+        const reader = res.body.pipeThrough(new TextDecoderStream()).getReader();
+        let pendente = '';
+        while (true) {
+            const { value, done } = await reader.read();
+            if (done) break;
+
+            pendente += value;
+            const eventos = pendente.split('\n\n');
+            pendente = eventos.pop();
+            // Linhas de comentário (": heartbeat") só mantêm a conexão; qualquer evento real recarrega a lista
+            let recarregar = false;
+            for (const evento of eventos) {
+                const linhas = evento.split('\n');
+                const id = linhas.find(l => l.startsWith('id:'));
+                if (id) ultimoEventoId = id.slice(3).trim();
+                if (linhas.some(l => l.startsWith('event:'))) recarregar = true;
+            }
+            if (recarregar) agendarRecarga();
+        }
+    } catch {
+        // Conexão caiu ou foi recusada: tenta de novo abaixo
+    }
+    if (localStorage.getItem('token')) setTimeout(assinarEventos, 3000);
+}
+
+// Vários eventos seguidos (ex.: importação) viram uma única recarga
+function agendarRecarga() {
+    clearTimeout(recargaAgendada);
+    recargaAgendada = setTimeout(loadVeiculos, 300);
+}
+
 /* =====================
    VEÍCULOS
 ===================== */
@@ -247,7 +294,7 @@ async function filtrarVeiculos() {
         if (!res.ok) throw new Error();
 
         const data = await res.json();
-        renderVeiculos(data);
+        renderVeiculos(data.content ?? data);
     } catch {
         showToast('Erro ao aplicar filtros', 'error');
     }
@@ -0,0 +1,120 @@
+package com.tinnova.veiculos.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CacheDuasCamadasTest {
+
+    private Cache remoto;
+    private List<String> invalidacoes;
+    private CacheDuasCamadas cache;
+
+    @BeforeEach
+    void setUp() {
+        remoto = spy(new ConcurrentMapCache("cotacaoDolar"));
+        invalidacoes = new ArrayList<>();
+        cache = new CacheDuasCamadas(
+                "cotacaoDolar",
+                Caffeine.newBuilder().build(),
+                remoto,
+                (nome, chave) -> invalidacoes.add(nome + ":" + chave)
+        );
+    }
+
+    @Test
+    @DisplayName("Deve ler da camada local depois do primeiro acesso ao Redis")
+    void shouldReadFromLocalTierAfterFirstHit() {
+        remoto.put("latest", "5.25");
+
+        assertEquals("5.25", cache.get("latest", String.class));
+        assertEquals("5.25", cache.get("latest", String.class));
+
+        verify(remoto, times(1)).get("latest");
+    }
+
+    @Test
+    @DisplayName("Deve gravar no Redis sem publicar invalidação")
+    void shouldWriteThroughWithoutPublishingInvalidation() {
+        cache.put("latest", "5.25");
+
+        assertEquals("5.25", remoto.get("latest").get());
+        assertTrue(invalidacoes.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve remover do Redis e publicar a invalidação para os outros nós")
+    void shouldEvictAndPublishInvalidation() {
+        cache.put("latest", "5.25");
+
+        cache.evict("latest");
+
+        assertNull(remoto.get("latest"));
+        assertNull(cache.get("latest"));
+        assertEquals(List.of("cotacaoDolar:latest"), invalidacoes);
+    }
+
+    @Test
+    @DisplayName("Deve carregar uma única vez com chamadas concorrentes no get com valueLoader")
+    void shouldLoadOnceForConcurrentCallers() throws Exception {
+        AtomicInteger carregamentos = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        Callable<String> carregar = () -> {
+            carregamentos.incrementAndGet();
+            Thread.sleep(50);
+            return "5.25";
+        };
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<String>> resultados = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    return cache.get("latest", carregar);
+                }));
+            }
+            largada.countDown();
+            for (Future<String> resultado : resultados) {
+                assertEquals("5.25", resultado.get());
+            }
+        }
+
+        assertEquals(1, carregamentos.get());
+        assertEquals("5.25", remoto.get("latest").get());
+        assertTrue(invalidacoes.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve descartar só a camada local ao receber invalidação de outro nó")
+    void shouldEvictLocalTierOnRemoteInvalidation() {
+        cache.put("latest", "5.25");
+        remoto.put("latest", "5.30");
+
+        cache.evictLocal("latest");
+
+        assertEquals("5.30", cache.get("latest", String.class));
+    }
+
+    @Test
+    @DisplayName("Deve tratar falha do Redis como cache miss")
+    void shouldTreatRedisFailureAsMiss() {
+        doThrow(new IllegalStateException("Redis fora do ar")).when(remoto).get("latest");
+
+        assertNull(cache.get("latest"));
+    }
+}
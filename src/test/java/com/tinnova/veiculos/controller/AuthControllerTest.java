@@ -70,4 +70,14 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.token").value("fake-jwt-token"))
                 .andExpect(jsonPath("$.role").value("ROLE_ADMIN"));
     }
+
+    @Test
+    void shouldRevokeTokenOnLogout() throws Exception {
+
+        mockMvc.perform(post("/auth/logout")
+                        .header("Authorization", "Bearer fake-jwt-token"))
+                .andExpect(status().isNoContent());
+
+        Mockito.verify(jwtService).revogar("fake-jwt-token");
+    }
 }
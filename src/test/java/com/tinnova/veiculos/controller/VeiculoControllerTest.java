@@ -1,28 +1,47 @@
 package com.tinnova.veiculos.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinnova.veiculos.dto.AlteracaoVeiculo;
+import com.tinnova.veiculos.dto.PaginaAlteracoes;
+import com.tinnova.veiculos.dto.PaginaCursor;
+import com.tinnova.veiculos.dto.TipoAlteracao;
+import com.tinnova.veiculos.dto.VeiculoDetalhe;
+import com.tinnova.veiculos.dto.VeiculoResumo;
 import com.tinnova.veiculos.model.Veiculo;
+import com.tinnova.veiculos.repository.VersaoColecao;
+import com.tinnova.veiculos.service.EventoVeiculoService;
 import com.tinnova.veiculos.service.VeiculoService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -31,6 +50,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(VeiculoController.class)
+@Import(RespostasSerializadas.class)
 class VeiculoControllerTest {
 
     @Autowired
@@ -39,9 +59,24 @@ class VeiculoControllerTest {
     @MockBean
     private VeiculoService veiculoService;
 
+    @MockBean
+    private EventoVeiculoService eventoVeiculoService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private RespostasSerializadas respostasSerializadas;
+
+    @BeforeEach
+    void stubVersoes() {
+        respostasSerializadas.limpar();
+        when(veiculoService.findVersaoColecao())
+                .thenReturn(new VersaoColecao(35, LocalDateTime.of(2024, 1, 1, 10, 0)));
+        when(veiculoService.versaoBusca(any(), any()))
+                .thenReturn(Mono.just("35"));
+    }
+
     private Veiculo buildVeiculo() {
         Veiculo v = new Veiculo();
         v.setId(1L);
@@ -55,6 +90,11 @@ class VeiculoControllerTest {
         return v;
     }
 
+    private VeiculoResumo buildResumo() {
+        return new VeiculoResumo(1L, null, "Toyota", "Corolla", 2022, "Preto", "ABC1D23",
+                BigDecimal.valueOf(20000), false);
+    }
+
     // =========================
     // CREATE
     // =========================
@@ -76,6 +116,20 @@ class VeiculoControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.modelo").value("Corolla"));
     }
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("POST /veiculos - Deve responder 400 para preço fora do intervalo")
+    void shouldRejectOutOfRangePrecoDolarOnCreate() throws Exception {
+        mockMvc.perform(post("/veiculos")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"marca\":\"Toyota\",\"placa\":\"ABC1D23\",\"precoDolar\":1e30}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Preço fora do intervalo suportado: 1000000000000000000000000000000"));
+
+        verify(veiculoService, never()).createVeiculo(any());
+    }
+
     // =========================
     // FIND ALL
     // =========================
@@ -85,8 +139,8 @@ class VeiculoControllerTest {
 
     void shouldFindAllVeiculos() throws Exception {
 
-        Page<Veiculo> page =
-                new PageImpl<>(List.of(buildVeiculo()));
+        Page<VeiculoResumo> page =
+                new PageImpl<>(List.of(buildResumo()));
 
         when(veiculoService.findVeiculosWithPaginationAndSorting(any()))
                 .thenReturn(page);
@@ -109,15 +163,11 @@ class VeiculoControllerTest {
     void shouldReturnPagedVeiculos() throws Exception {
 
         // Arrange
-        Veiculo veiculo = new Veiculo();
-        veiculo.setId(1L);
-        veiculo.setMarca("Toyota");
-        veiculo.setModelo("Corolla");
-        veiculo.setAno(2022);
-        veiculo.setPrecoDolar(BigDecimal.valueOf(20000));
+        VeiculoResumo veiculo = new VeiculoResumo(1L, null, "Toyota", "Corolla", 2022, null, null,
+                BigDecimal.valueOf(20000), false);
 
-        PageRequest pageRequest = PageRequest.of(0, 10);
-        Page<Veiculo> page = new PageImpl<>(List.of(veiculo), pageRequest, 1);
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("id"));
+        Page<VeiculoResumo> page = new PageImpl<>(List.of(veiculo), pageRequest, 1);
 
         Mockito.when(veiculoService.findVeiculosWithPaginationAndSorting(pageRequest))
                 .thenReturn(page);
@@ -136,6 +186,78 @@ class VeiculoControllerTest {
                 .findVeiculosWithPaginationAndSorting(pageRequest);
     }
 
+    @Test
+    @WithMockUser
+    @DisplayName("GET /veiculos - Deve aplicar a ordenação informada com desempate por id")
+    void shouldApplySortParameter() throws Exception {
+
+        PageRequest pageRequest = PageRequest.of(0, 10,
+                Sort.by(Sort.Order.desc("marca"), Sort.Order.asc("ano"), Sort.Order.asc("id")));
+
+        when(veiculoService.findVeiculosWithPaginationAndSorting(pageRequest))
+                .thenReturn(new PageImpl<>(List.of(buildResumo()), pageRequest, 1));
+
+        mockMvc.perform(get("/veiculos")
+                        .param("sort", "marca,desc")
+                        .param("sort", "ano"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].marca").value("Toyota"));
+
+        verify(veiculoService).findVeiculosWithPaginationAndSorting(pageRequest);
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /veiculos?after - Deve paginar por cursor sem contagem")
+    void shouldReturnVeiculosAfterCursor() throws Exception {
+
+        when(veiculoService.findVeiculosAfter(0L, 10, false))
+                .thenReturn(new PaginaCursor<>(List.of(buildResumo()), 10, 1L, false));
+
+        mockMvc.perform(get("/veiculos")
+                        .param("after", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].placa").value("ABC1D23"))
+                .andExpect(jsonPath("$.nextCursor").value(1))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /veiculos?after=&sort=id,desc - Deve buscar a primeira página decrescente sem cursor")
+    void shouldReturnFirstDescendingPageWithoutCursor() throws Exception {
+
+        when(veiculoService.findVeiculosAfter(null, 10, true))
+                .thenReturn(new PaginaCursor<>(List.of(buildResumo()), 10, 1L, false));
+
+        mockMvc.perform(get("/veiculos")
+                        .param("after", "")
+                        .param("sort", "id,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].placa").value("ABC1D23"));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /veiculos/changes - Deve devolver as alterações desde o cursor")
+    void shouldReturnChangesSinceCursor() throws Exception {
+
+        AlteracaoVeiculo removido = new AlteracaoVeiculo(TipoAlteracao.REMOVIDO, 7L, null, "Toyota", "Corolla", 2022,
+                "Preto", "ABC1D23", BigDecimal.valueOf(20000), false, LocalDateTime.of(2024, 1, 1, 10, 1), 2L, 42L);
+
+        when(veiculoService.findAlteracoes(40L, 5L, 100))
+                .thenReturn(new PaginaAlteracoes(List.of(removido), 100, 42L, 7L, false));
+
+        mockMvc.perform(get("/veiculos/changes")
+                        .param("since", "40")
+                        .param("afterId", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].tipo").value("REMOVIDO"))
+                .andExpect(jsonPath("$.nextSince").value(42))
+                .andExpect(jsonPath("$.nextAfterId").value(7))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
     // =========================
     // FIND BY ID
     // =========================
@@ -143,12 +265,80 @@ class VeiculoControllerTest {
     @WithMockUser
     @DisplayName("GET /veiculos/{id} - Deve buscar veículo por ID")
     void shouldFindVeiculoById() throws Exception {
-        when(veiculoService.findVeiculoById(1L))
-                .thenReturn(buildVeiculo());
+        when(veiculoService.findVeiculoDetalheById(1L))
+                .thenReturn(new VeiculoDetalhe(1L, null, "Toyota", "Corolla", 2022, "Preto", "ABC1D23",
+                        BigDecimal.valueOf(20000), false, LocalDateTime.of(2024, 1, 1, 10, 0), null, 0L));
 
         mockMvc.perform(get("/veiculos/{id}", 1L))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.placa").value("ABC1D23"));
+                .andExpect(jsonPath("$.placa").value("ABC1D23"))
+                .andExpect(jsonPath("$.deleted").doesNotExist())
+                .andExpect(header().string("ETag", "\"1-0\""));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /veiculos/{id} - Deve responder 304 quando o ETag não mudou")
+    void shouldReturnNotModifiedForUnchangedVeiculo() throws Exception {
+        when(veiculoService.findVeiculoDetalheById(1L))
+                .thenReturn(new VeiculoDetalhe(1L, null, "Toyota", "Corolla", 2022, "Preto", "ABC1D23",
+                        BigDecimal.valueOf(20000), false, LocalDateTime.of(2024, 1, 1, 10, 0), null, 0L));
+
+        mockMvc.perform(get("/veiculos/{id}", 1L)
+                        .header("If-None-Match", "\"1-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /veiculos/{id}?precoReal=true - Deve incluir o preço em BRL e a cotação no ETag")
+    void shouldFindVeiculoByIdWithPrecoReal() throws Exception {
+        when(veiculoService.findVeiculoDetalheById(1L))
+                .thenReturn(new VeiculoDetalhe(1L, null, "Toyota", "Corolla", 2022, "Preto", "ABC1D23",
+                        BigDecimal.valueOf(20000), false, LocalDateTime.of(2024, 1, 1, 10, 0), null, 0L));
+        when(veiculoService.getCotacaoDolar()).thenReturn(new BigDecimal("5.25"));
+
+        mockMvc.perform(get("/veiculos/{id}", 1L)
+                        .param("precoReal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.placa").value("ABC1D23"))
+                .andExpect(jsonPath("$.precoDolar").value(20000))
+                .andExpect(jsonPath("$.precoReal").value(105000.00))
+                .andExpect(header().string("ETag", "\"1-0-brl5.25\""));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /veiculos - Deve servir a mesma página da memória enquanto a versão não muda")
+    void shouldServeCachedPageWhileVersionIsUnchanged() throws Exception {
+        when(veiculoService.findVeiculosWithPaginationAndSorting(any()))
+                .thenReturn(new PageImpl<>(List.of(buildResumo())));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/veiculos"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].modelo").value("Corolla"));
+        }
+        verify(veiculoService, times(1)).findVeiculosWithPaginationAndSorting(any());
+
+        // Escrita na coleção: versão nova, consulta refeita
+        when(veiculoService.findVersaoColecao())
+                .thenReturn(new VersaoColecao(46, LocalDateTime.of(2024, 1, 1, 11, 0)));
+        mockMvc.perform(get("/veiculos"))
+                .andExpect(status().isOk());
+        verify(veiculoService, times(2)).findVeiculosWithPaginationAndSorting(any());
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /veiculos - Deve responder 304 sem consultar a página quando a coleção não mudou")
+    void shouldReturnNotModifiedForUnchangedCollection() throws Exception {
+        mockMvc.perform(get("/veiculos")
+                        .header("If-None-Match", "\"35\""))
+                .andExpect(status().isNotModified());
+
+        verify(veiculoService, never()).findVeiculosWithPaginationAndSorting(any());
     }
 
     // =========================
@@ -173,6 +363,45 @@ class VeiculoControllerTest {
                 .andExpect(jsonPath("$.marca").value("Honda"));
     }
 
+    // =========================
+    // PATCH
+    // =========================
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("PATCH /veiculos/{id} - Deve aplicar só os campos enviados (ADMIN)")
+    void shouldPatchVeiculo() throws Exception {
+
+        Veiculo veiculo = buildVeiculo();
+        veiculo.setVendido(true);
+
+        when(veiculoService.patchVeiculo(1L, Map.of("vendido", true)))
+                .thenReturn(veiculo);
+
+        mockMvc.perform(patch("/veiculos/{id}", 1L)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"vendido\": true}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.vendido").value(true));
+
+        verify(veiculoService).patchVeiculo(1L, Map.of("vendido", true));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("PATCH /veiculos/{id} - Deve responder 409 quando o veículo foi alterado por outra requisição")
+    void shouldReturnConflictOnConcurrentPatch() throws Exception {
+
+        when(veiculoService.patchVeiculo(eq(1L), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Veiculo.class, 1L));
+
+        mockMvc.perform(patch("/veiculos/{id}", 1L)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"versao\": 0, \"cor\": \"Branco\"}"))
+                .andExpect(status().isConflict());
+    }
+
 
     // =========================
     // DELETE
@@ -196,23 +425,132 @@ class VeiculoControllerTest {
     // =========================
     // SEARCH
     // =========================
+    @Test
+    @WithMockUser
+    @DisplayName("GET /veiculos/busca - Deve responder 400 para limite de preço fora do intervalo")
+    void shouldRejectOutOfRangePriceFilter() throws Exception {
+        mockMvc.perform(get("/veiculos/busca")
+                        .param("minPreco", "1e30"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verify(veiculoService, never()).searchVeiculosAsync(any(), any(), any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /veiculos - Deve rejeitar direção de ordenação inválida com 400")
+    void shouldRejectInvalidSortDirection() throws Exception {
+        mockMvc.perform(get("/veiculos")
+                        .param("sort", "marca,cima"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Direção de ordenação inválida: cima"));
+
+        verify(veiculoService, never()).findVeiculosWithPaginationAndSorting(any());
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /veiculos - Deve rejeitar página cujo offset não cabe em int com 400")
+    void shouldRejectPageBeyondIntOffset() throws Exception {
+        mockMvc.perform(get("/veiculos")
+                        .param("page", "2147483647")
+                        .param("size", "100"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Página fora do intervalo suportado: 2147483647"));
+
+        verify(veiculoService, never()).findVeiculosWithPaginationAndSorting(any());
+    }
+
     @Test
     @WithMockUser
     @DisplayName("GET /veiculos/busca - Deve buscar veículos com filtros")
     void shouldSearchVeiculos() throws Exception {
 
-        when(veiculoService.searchVeiculos(
-                any(), any(), any(), any(), any()))
-                .thenReturn(List.of(buildVeiculo()));
+        when(veiculoService.searchVeiculosAsync(
+                any(), any(), any(), any(), any(), any(), eq(true)))
+                .thenReturn(Mono.just(new PageImpl<>(List.of(buildResumo()), PageRequest.of(0, 10), 1)));
 
-        mockMvc.perform(get("/veiculos/busca")
+        MvcResult result = mockMvc.perform(get("/veiculos/busca")
                         .param("marca", "Toyota")
                         .param("ano", "2022")
                         .param("cor", "Preto")
                         .param("minPrecoBRL", "100000.00")
                         .param("maxPrecoBRL", "150000.00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].marca").value("Toyota"))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(header().string("ETag", "\"35\""));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /veiculos/busca - Deve responder 304 sem executar a busca quando a versão não mudou")
+    void shouldReturnNotModifiedForUnchangedSearch() throws Exception {
+        MvcResult result = mockMvc.perform(get("/veiculos/busca")
+                        .param("cor", "Preto")
+                        .header("If-None-Match", "\"35\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotModified());
+
+        verify(veiculoService, never()).searchVeiculosAsync(any(), any(), any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /veiculos/busca - Deve paginar sem contagem quando contar=false")
+    void shouldSearchVeiculosWithoutCount() throws Exception {
+
+        PageRequest pageRequest = PageRequest.of(1, 100, Sort.by(Sort.Order.desc("ano"), Sort.Order.asc("id")));
+
+        when(veiculoService.searchVeiculosAsync(
+                any(), any(), any(), any(), any(), eq(pageRequest), eq(false)))
+                .thenReturn(Mono.just(new SliceImpl<>(List.of(buildResumo()), pageRequest, true)));
+
+        MvcResult result = mockMvc.perform(get("/veiculos/busca")
+                        .param("marca", "Toyota")
+                        .param("page", "1")
+                        .param("size", "500")
+                        .param("sort", "ano,desc")
+                        .param("contar", "false"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].marca").value("Toyota"));
+                .andExpect(jsonPath("$.content[0].marca").value("Toyota"))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /veiculos/busca?precoReal=true - Deve incluir o preço em BRL")
+    void shouldSearchVeiculosWithPrecoReal() throws Exception {
+
+        when(veiculoService.getCotacaoDolarAsync()).thenReturn(Mono.just(new BigDecimal("5.00")));
+        when(veiculoService.searchVeiculosAsync(
+                any(), any(), any(), any(), any(), any(), eq(true)))
+                .thenReturn(Mono.just(new PageImpl<>(List.of(buildResumo()), PageRequest.of(0, 10), 1)));
+
+        MvcResult result = mockMvc.perform(get("/veiculos/busca")
+                        .param("marca", "Toyota")
+                        .param("precoReal", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].marca").value("Toyota"))
+                .andExpect(jsonPath("$.content[0].precoReal").value(100000.00))
+                .andExpect(header().string("ETag", "\"35-brl5.00\""));
     }
 
 
@@ -33,6 +33,14 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.error").value("Erro de validação"));
     }
 
+    @Test
+    @DisplayName("Deve retornar 400 para RequisicaoInvalidaException")
+    void shouldReturn400ForRequisicaoInvalidaException() throws Exception {
+        mockMvc.perform(get("/test/bad-request"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Parâmetro inválido"));
+    }
+
     // =========================
     // NOT FOUND EXCEPTION
     // =========================
@@ -55,6 +63,11 @@ class GlobalExceptionHandlerTest {
             throw new ValidationException("Erro de validação");
         }
 
+        @GetMapping("/test/bad-request")
+        public void badRequest() {
+            throw new RequisicaoInvalidaException("Parâmetro inválido");
+        }
+
         @GetMapping("/test/not-found")
         public void notFound() {
             throw new ResourceNotFoundException("Recurso não encontrado");
@@ -0,0 +1,91 @@
+package com.tinnova.veiculos.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtAuthenticationFilterTest {
+
+    private JwtService jwtService;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new JwtAuthenticationFilter(jwtService, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Deve autenticar a partir das claims e contar o sucesso")
+    void shouldAuthenticateFromClaims() throws Exception {
+        String token = jwtService.generateToken(User.builder()
+                .username("admin")
+                .password("123456")
+                .roles("ADMIN")
+                .build());
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals("admin", auth.getName());
+        assertTrue(auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")));
+        assertEquals(1.0, meterRegistry.counter("auth.jwt.requests", "resultado", "sucesso").count());
+        assertEquals(1L, meterRegistry.timer("auth.jwt.parse").count());
+    }
+
+    @Test
+    @DisplayName("Deve manter o usuário no MDC só durante a requisição")
+    void shouldExposeUserInMdcDuringRequest() throws Exception {
+        String token = jwtService.generateToken(User.builder()
+                .username("admin")
+                .password("123456")
+                .roles("ADMIN")
+                .build());
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        AtomicReference<String> usuarioNaCadeia = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> usuarioNaCadeia.set(MDC.get(JwtAuthenticationFilter.MDC_USUARIO)));
+
+        assertEquals("admin", usuarioNaCadeia.get());
+        assertNull(MDC.get(JwtAuthenticationFilter.MDC_USUARIO));
+    }
+
+    @Test
+    @DisplayName("Deve contar token inválido sem autenticar")
+    void shouldCountInvalidToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token.invalido.aqui");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1.0, meterRegistry.counter("auth.jwt.requests", "resultado", "invalido").count());
+        assertEquals(1L, meterRegistry.timer("auth.jwt.parse").count());
+    }
+}
@@ -1,12 +1,18 @@
 package com.tinnova.veiculos.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.Date;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class JwtServiceTest {
@@ -73,4 +79,71 @@ class JwtServiceTest {
                 jwtService.extractUsername(invalidToken)
         );
     }
+
+    @Test
+    @DisplayName("Deve reutilizar as claims de um token já verificado")
+    void shouldReuseClaimsForVerifiedToken() {
+        String token = jwtService.generateToken(userDetails);
+
+        Claims primeira = jwtService.extractClaims(token);
+        Claims segunda = jwtService.extractClaims(token);
+
+        assertSame(primeira, segunda);
+    }
+
+    @Test
+    @DisplayName("Não deve aceitar token com assinatura adulterada")
+    void shouldRejectTamperedToken() {
+        String token = jwtService.generateToken(userDetails);
+        int posicao = token.lastIndexOf('.') + 10;
+        char trocado = token.charAt(posicao) == 'A' ? 'B' : 'A';
+        String adulterado = token.substring(0, posicao) + trocado + token.substring(posicao + 1);
+
+        assertFalse(jwtService.isTokenValid(adulterado));
+        assertTrue(jwtService.isTokenValid(token));
+    }
+
+    @Test
+    @DisplayName("Deve embutir roles e expiração no token")
+    void shouldEmbedRolesAndExpiration() {
+        String token = jwtService.generateToken(userDetails);
+
+        Claims claims = jwtService.extractClaims(token);
+
+        assertEquals(List.of("ROLE_ADMIN"), jwtService.extractRoles(claims));
+        assertNotNull(claims.getExpiration());
+        assertTrue(claims.getExpiration().after(new Date()));
+    }
+
+    @Test
+    @DisplayName("Não deve aceitar token assinado sem exp, jti ou roles")
+    void shouldRejectTokenMissingRequiredClaims() {
+        Date agora = new Date();
+        Date expiracao = new Date(agora.getTime() + JwtService.VALIDADE_TOKEN.toMillis());
+
+        String semExp = Jwts.builder().setId("1").setSubject("admin")
+                .claim(JwtService.CLAIM_ROLES, List.of("ROLE_ADMIN"))
+                .signWith(JwtService.KEY, SignatureAlgorithm.HS256).compact();
+        String semJti = Jwts.builder().setSubject("admin").setExpiration(expiracao)
+                .claim(JwtService.CLAIM_ROLES, List.of("ROLE_ADMIN"))
+                .signWith(JwtService.KEY, SignatureAlgorithm.HS256).compact();
+        String semRoles = Jwts.builder().setId("3").setSubject("admin").setExpiration(expiracao)
+                .signWith(JwtService.KEY, SignatureAlgorithm.HS256).compact();
+
+        assertFalse(jwtService.isTokenValid(semExp));
+        assertFalse(jwtService.isTokenValid(semJti));
+        assertFalse(jwtService.isTokenValid(semRoles));
+    }
+
+    @Test
+    @DisplayName("Deve marcar o token como revogado após o logout")
+    void shouldRevokeToken() {
+        String token = jwtService.generateToken(userDetails);
+        String outroToken = jwtService.generateToken(userDetails);
+
+        jwtService.revogar(token);
+
+        assertTrue(jwtService.isRevogado(jwtService.extractClaims(token)));
+        assertFalse(jwtService.isRevogado(jwtService.extractClaims(outroToken)));
+    }
 }
@@ -1,6 +1,8 @@
 package com.tinnova.veiculos.service;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -9,13 +11,21 @@ import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.ExchangeFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class CambioServiceTest {
@@ -47,7 +57,7 @@ class CambioServiceTest {
                 .exchangeFunction(exchangeFunction)
                 .build();
 
-        CambioService service = new CambioService(webClient);
+        CambioService service = new CambioService(webClient, webClient, CircuitBreaker.ofDefaults("awesomeapi"), new ConcurrentMapCacheManager());
 
         // Act
         BigDecimal result = service.getCotacaoDolarBRL();
@@ -71,10 +81,10 @@ class CambioServiceTest {
                 .exchangeFunction(exchangeFunction)
                 .build();
 
-        CambioService service = new CambioService(webClient){
+        CambioService service = new CambioService(webClient, webClient, CircuitBreaker.ofDefaults("awesomeapi"), new ConcurrentMapCacheManager()){
                     @Override
-                    public BigDecimal getCotacaoDolarBRLFallback() {
-                        return new BigDecimal("5.50");
+                    protected Mono<BigDecimal> buscarCotacaoFallback() {
+                        return Mono.just(new BigDecimal("5.50"));
                     }
                 };
 
@@ -84,4 +94,137 @@ class CambioServiceTest {
         // Assert
         assertEquals(new BigDecimal("5.50"), result);
     }
+
+    // =========================
+    // SINGLE-FLIGHT
+    // =========================
+    @Test
+    void shouldShareInFlightRequestBetweenConcurrentCallers() {
+        // Arrange
+        ExchangeFunction exchangeFunction = mock(ExchangeFunction.class);
+        Sinks.One<ClientResponse> resposta = Sinks.one();
+
+        when(exchangeFunction.exchange(any()))
+                .thenReturn(resposta.asMono());
+
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(exchangeFunction)
+                .build();
+
+        CambioService service = new CambioService(webClient, webClient, CircuitBreaker.ofDefaults("awesomeapi"), new ConcurrentMapCacheManager());
+
+        // Act
+        Mono<BigDecimal> primeira = service.getCotacaoDolarBRLAsync();
+        Mono<BigDecimal> segunda = service.getCotacaoDolarBRLAsync();
+
+        StepVerifier.create(Mono.zip(primeira, segunda))
+                .then(() -> resposta.tryEmitValue(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body("[{\"bid\": \"5.25\"}]")
+                        .build()))
+                .assertNext(cotacoes -> {
+                    assertEquals(new BigDecimal("5.25"), cotacoes.getT1());
+                    assertEquals(new BigDecimal("5.25"), cotacoes.getT2());
+                })
+                .verifyComplete();
+
+        // Assert
+        verify(exchangeFunction, times(1)).exchange(any());
+    }
+
+    // =========================
+    // STALE-WHILE-REVALIDATE
+    // =========================
+    @Test
+    void shouldServeStaleQuoteWhenBothProvidersFail() {
+        // Arrange
+        ExchangeFunction exchangeFunction = mock(ExchangeFunction.class);
+
+        when(exchangeFunction.exchange(any()))
+                .thenReturn(Mono.error(new RuntimeException("API down")));
+
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(exchangeFunction)
+                .build();
+
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+        cacheManager.getCache("cotacaoDolar")
+                .put("latest", new Cotacao(new BigDecimal("5.25"), Instant.now().minus(Duration.ofHours(1))));
+
+        CambioService service = new CambioService(webClient, webClient, CircuitBreaker.ofDefaults("awesomeapi"), cacheManager) {
+            @Override
+            protected Mono<BigDecimal> buscarCotacaoFallback() {
+                return Mono.error(new RuntimeException("Fallback down"));
+            }
+        };
+
+        // Act
+        BigDecimal result = service.getCotacaoDolarBRL();
+
+        // Assert
+        assertEquals(new BigDecimal("5.25"), result);
+        verify(exchangeFunction, timeout(1000)).exchange(any());
+        assertEquals(new BigDecimal("5.25"), service.getCotacaoDolarBRL());
+    }
+
+    @Test
+    void shouldShareQuoteThroughCache() {
+        // Arrange
+        ExchangeFunction exchangeFunction = mock(ExchangeFunction.class);
+
+        when(exchangeFunction.exchange(any()))
+                .thenReturn(Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body("[{\"bid\": \"5.25\"}]")
+                        .build()));
+
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(exchangeFunction)
+                .build();
+
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+        CambioService primeiroNo = new CambioService(webClient, webClient, CircuitBreaker.ofDefaults("awesomeapi"), cacheManager);
+        CambioService segundoNo = new CambioService(webClient, webClient, CircuitBreaker.ofDefaults("awesomeapi"), cacheManager);
+
+        // Act
+        primeiroNo.getCotacaoDolarBRL();
+        BigDecimal result = segundoNo.getCotacaoDolarBRL();
+
+        // Assert
+        assertEquals(new BigDecimal("5.25"), result);
+        verify(exchangeFunction, times(1)).exchange(any());
+    }
+
+    // =========================
+    // CIRCUIT BREAKER
+    // =========================
+    @Test
+    void shouldGoStraightToFallbackWhileCircuitIsOpen() {
+        // Arrange
+        ExchangeFunction principal = mock(ExchangeFunction.class);
+        ExchangeFunction fallback = mock(ExchangeFunction.class);
+
+        when(fallback.exchange(any()))
+                .thenReturn(Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body("{\"rates\": {\"BRL\": 5.4}}")
+                        .build()));
+
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("awesomeapi");
+        circuitBreaker.transitionToOpenState();
+
+        CambioService service = new CambioService(
+                WebClient.builder().exchangeFunction(principal).build(),
+                WebClient.builder().exchangeFunction(fallback).build(),
+                circuitBreaker,
+                new ConcurrentMapCacheManager()
+        );
+
+        // Act
+        BigDecimal result = service.getCotacaoDolarBRL();
+
+        // Assert
+        assertEquals(new BigDecimal("5.4"), result);
+        verifyNoInteractions(principal);
+    }
 }
@@ -0,0 +1,32 @@
+package com.tinnova.veiculos.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConversaoCambioTest {
+
+    private final ConversaoCambio conversao = new ConversaoCambio();
+
+    @Test
+    void shouldMatchBigDecimalDivisionRounding() {
+        BigDecimal cotacao = new BigDecimal("5.2534");
+
+        for (String valor : new String[]{"0", "0.01", "100000", "105068.00", "99999.99", "123456.78"}) {
+            BigDecimal precoBRL = new BigDecimal(valor);
+            long esperado = precoBRL.divide(cotacao, 2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+            assertEquals(esperado, conversao.centavosDolar(precoBRL, cotacao), valor);
+        }
+    }
+
+    @Test
+    void shouldUseNewQuoteAfterChange() {
+        BigDecimal precoBRL = new BigDecimal("100000");
+
+        assertEquals(2000000L, conversao.centavosDolar(precoBRL, new BigDecimal("5.00")));
+        assertEquals(2500000L, conversao.centavosDolar(precoBRL, new BigDecimal("4.00")));
+    }
+}
@@ -0,0 +1,71 @@
+package com.tinnova.veiculos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tinnova.veiculos.dto.EventoVeiculo;
+import com.tinnova.veiculos.dto.TipoEvento;
+import com.tinnova.veiculos.dto.VeiculoResumo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class EventoVeiculoRedisTest {
+
+    private final EventoVeiculoService eventoVeiculoService = mock(EventoVeiculoService.class);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private EventoVeiculoRedis eventoVeiculoRedis;
+
+    private final EventoVeiculo evento = new EventoVeiculo(TipoEvento.CRIADO, new VeiculoResumo(1L, null, "Toyota",
+            "Corolla", 2022, "Preto", "ABC1D23", BigDecimal.valueOf(20000), false), Instant.now(), 9L);
+
+    @BeforeEach
+    void setUp() {
+        eventoVeiculoRedis = new EventoVeiculoRedis(eventoVeiculoService, redisTemplate, objectMapper,
+                mock(RedisMessageListenerContainer.class));
+    }
+
+    @Test
+    void shouldDeliverEventsPublishedByOtherNodes() throws Exception {
+        String mensagem = objectMapper.writeValueAsString(new EventoVeiculoRedis.Mensagem("outro-no", evento));
+
+        eventoVeiculoRedis.aoReceber(mensagem);
+
+        verify(eventoVeiculoService).emitir(evento);
+    }
+
+    @Test
+    void shouldIgnoreOwnMessages() {
+        ArgumentCaptor<String> publicada = ArgumentCaptor.forClass(String.class);
+
+        eventoVeiculoRedis.aoAlterarVeiculo(evento);
+        verify(redisTemplate).convertAndSend(eq(EventoVeiculoRedis.CANAL_EVENTOS), publicada.capture());
+        eventoVeiculoRedis.aoReceber(publicada.getValue());
+
+        // Este nó já entregou o evento direto no sink
+        verify(eventoVeiculoService, never()).emitir(any());
+    }
+
+    @Test
+    void shouldNotFailWriteWhenRedisIsDown() {
+        doThrow(new IllegalStateException("Redis fora do ar"))
+                .when(redisTemplate).convertAndSend(eq(EventoVeiculoRedis.CANAL_EVENTOS), any(String.class));
+
+        // A escrita já foi confirmada: a falha fica no log
+        assertDoesNotThrow(() -> eventoVeiculoRedis.aoAlterarVeiculo(evento));
+    }
+}
@@ -0,0 +1,132 @@
+package com.tinnova.veiculos.service;
+
+import com.tinnova.veiculos.dto.AlteracaoVeiculo;
+import com.tinnova.veiculos.dto.EventoVeiculo;
+import com.tinnova.veiculos.dto.PaginaAlteracoes;
+import com.tinnova.veiculos.dto.TipoAlteracao;
+import com.tinnova.veiculos.dto.TipoEvento;
+import com.tinnova.veiculos.dto.VeiculoResumo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class EventoVeiculoServiceTest {
+
+    private final VeiculoService veiculoService = mock(VeiculoService.class);
+
+    private EventoVeiculo evento(TipoEvento tipo, long id, long alteracao) {
+        return new EventoVeiculo(tipo, new VeiculoResumo(id, null, "Toyota", "Corolla", 2022, "Preto", "ABC1D23",
+                BigDecimal.valueOf(20000), tipo == TipoEvento.VENDIDO), Instant.now(), alteracao);
+    }
+
+    private AlteracaoVeiculo alteracao(TipoAlteracao tipo, long id, long alteracao) {
+        return new AlteracaoVeiculo(tipo, id, null, "Toyota", "Corolla", 2022, "Preto", "ABC1D23",
+                BigDecimal.valueOf(20000), false, LocalDateTime.of(2024, 1, 1, 10, 0), 1L, alteracao);
+    }
+
+    @Test
+    void shouldDeliverEventsToEverySubscriber() {
+        EventoVeiculoService service = new EventoVeiculoService(veiculoService, new SimpleMeterRegistry());
+
+        StepVerifier.create(service.assinar())
+                .then(() -> service.aoAlterarVeiculo(evento(TipoEvento.VENDIDO, 1L, 9L)))
+                .assertNext(sse -> {
+                    assertEquals("VENDIDO", sse.event());
+                    assertEquals("9-1", sse.id());
+                    assertEquals(1L, sse.data().veiculo().id());
+                })
+                .thenCancel()
+                .verify();
+        verifyNoInteractions(veiculoService);
+    }
+
+    @Test
+    void shouldReplayMissedChangesBeforeLiveEvents() {
+        EventoVeiculoService service = new EventoVeiculoService(veiculoService, new SimpleMeterRegistry());
+        when(veiculoService.findAlteracoes(5L, 2L, EventoVeiculoService.LIMITE_REENVIO))
+                .thenReturn(new PaginaAlteracoes(List.of(alteracao(TipoAlteracao.ATUALIZADO, 3L, 6L),
+                        alteracao(TipoAlteracao.REMOVIDO, 1L, 7L)), EventoVeiculoService.LIMITE_REENVIO, 7L, 1L, false));
+
+        StepVerifier.create(service.assinar("5-2"))
+                .assertNext(sse -> assertEquals("6-3", sse.id()))
+                .assertNext(sse -> {
+                    assertEquals("7-1", sse.id());
+                    assertEquals("REMOVIDO", sse.event());
+                })
+                // Já coberto pelo reenvio: não chega de novo
+                .then(() -> service.aoAlterarVeiculo(evento(TipoEvento.REMOVIDO, 1L, 7L)))
+                .then(() -> service.aoAlterarVeiculo(evento(TipoEvento.CRIADO, 4L, 8L)))
+                .assertNext(sse -> assertEquals("8-4", sse.id()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void shouldAskForResyncWhenTooManyChangesWereMissed() {
+        EventoVeiculoService service = new EventoVeiculoService(veiculoService, new SimpleMeterRegistry());
+        when(veiculoService.findAlteracoes(5L, 2L, EventoVeiculoService.LIMITE_REENVIO))
+                .thenReturn(new PaginaAlteracoes(List.of(alteracao(TipoAlteracao.ATUALIZADO, 3L, 6L)),
+                        EventoVeiculoService.LIMITE_REENVIO, 900L, 10L, true));
+
+        StepVerifier.create(service.assinar("5-2"))
+                .assertNext(sse -> assertEquals(EventoVeiculoService.RESSINCRONIZAR, sse.event()))
+                .then(() -> service.aoAlterarVeiculo(evento(TipoEvento.ATUALIZADO, 11L, 900L)))
+                .assertNext(sse -> assertEquals("900-11", sse.id()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void shouldDropOldestEventsForSlowSubscriber() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EventoVeiculoService service = new EventoVeiculoService(veiculoService, registry);
+
+        // Assinante sem demanda: o buffer por cliente enche e passa a descartar, sem afetar a emissão
+        StepVerifier.create(service.assinar(), 0)
+                .then(() -> {
+                    for (long id = 1; id <= 1000; id++) {
+                        service.aoAlterarVeiculo(evento(TipoEvento.ATUALIZADO, id, id));
+                    }
+                })
+                .then(() -> assertTrue(registry.counter("veiculos.eventos.descartados").count() > 0))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void shouldDeliverConcurrentEmissionsWithoutFailingTheWriter() throws Exception {
+        EventoVeiculoService service = new EventoVeiculoService(veiculoService, new SimpleMeterRegistry());
+        List<String> recebidos = new CopyOnWriteArrayList<>();
+        Disposable assinatura = service.assinar().subscribe(sse -> recebidos.add(sse.id()));
+
+        // Escritas confirmadas em threads diferentes emitem ao mesmo tempo; nenhuma espera nem falha
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int t = 0; t < 4; t++) {
+                long base = t * 100L;
+                executor.submit(() -> {
+                    for (long id = 1; id <= 100; id++) {
+                        service.aoAlterarVeiculo(evento(TipoEvento.ATUALIZADO, base + id, base + id));
+                    }
+                });
+            }
+        }
+        assinatura.dispose();
+
+        assertEquals(400, recebidos.size());
+    }
+}
@@ -0,0 +1,161 @@
+package com.tinnova.veiculos.service;
+
+import com.tinnova.veiculos.dto.EventoVeiculo;
+import com.tinnova.veiculos.dto.TipoEvento;
+import com.tinnova.veiculos.dto.VeiculoResumo;
+import com.tinnova.veiculos.model.Veiculo;
+import com.tinnova.veiculos.repository.VeiculoRepository;
+import com.tinnova.veiculos.repository.VersaoColecao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IndiceVeiculosTest {
+
+    @Mock
+    private VeiculoRepository veiculoRepository;
+
+    private IndiceVeiculos indice;
+
+    private VeiculoResumo resumo(long id, String marca, int ano, String cor, String preco) {
+        return new VeiculoResumo(id, "Carro", marca, "Modelo", ano, cor, "ABC1D2" + id, new BigDecimal(preco), false);
+    }
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceVeiculos(veiculoRepository, 60000);
+    }
+
+    private Veiculo alterado(long id, String marca, int ano, String cor, String preco, long alteracao, boolean deleted) {
+        Veiculo veiculo = new Veiculo();
+        veiculo.setId(id);
+        veiculo.setMarca(marca);
+        veiculo.setAno(ano);
+        veiculo.setCor(cor);
+        veiculo.setPrecoDolar(new BigDecimal(preco));
+        veiculo.setAlteracao(alteracao);
+        veiculo.setDeleted(deleted);
+        return veiculo;
+    }
+
+    // Carga na versão 10 da coleção, sem alterações durante a carga
+    private void carregar(VeiculoResumo... veiculos) {
+        marcaDAgua(10);
+        when(veiculoRepository.findResumosAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(veiculos));
+        when(veiculoRepository.findAlteracoes(10L, 0L, 10L, 1000)).thenReturn(List.of());
+        indice.recarregar();
+    }
+
+    private void marcaDAgua(long alteracao) {
+        when(veiculoRepository.findVersaoColecao()).thenReturn(new VersaoColecao(alteracao, null));
+    }
+
+    @Test
+    void shouldIntersectFiltersAndPriceRange() {
+        carregar(
+                resumo(1, "Toyota", 2022, "Preto", "20000.00"),
+                resumo(2, "Toyota", 2022, "Branco", "25000.00"),
+                resumo(3, "Toyota", 2020, "Preto", "18000.00"),
+                resumo(4, "Honda", 2022, "Preto", "21000.00"));
+
+        assertArrayEquals(new long[]{1, 3}, indice.buscar("Toyota", null, "Preto", null, null).orElseThrow());
+        assertArrayEquals(new long[]{1, 4}, indice.buscar(null, 2022, "Preto", null, null).orElseThrow());
+        assertArrayEquals(new long[]{1, 4}, indice.buscar(null, null, null, 2000000L, 2100000L).orElseThrow());
+        assertArrayEquals(new long[]{}, indice.buscar("Fiat", null, null, null, null).orElseThrow());
+    }
+
+    @Test
+    void shouldFollowChangeFeedOnScheduledSync() {
+        carregar(resumo(1, "Toyota", 2022, "Preto", "20000.00"));
+
+        // Escritas feitas por qualquer nó chegam pelo feed na sincronização agendada
+        marcaDAgua(12);
+        when(veiculoRepository.findAlteracoes(10L, Long.MAX_VALUE, 12L, 1000)).thenReturn(List.of(
+                alterado(2, "Toyota", 2021, "Preto", "15000.00", 11, false),
+                alterado(1, "Honda", 2022, "Preto", "30000.00", 12, false)));
+        indice.sincronizar();
+
+        assertArrayEquals(new long[]{2}, indice.buscar("Toyota", null, null, null, null).orElseThrow());
+        assertArrayEquals(new long[]{1}, indice.buscar(null, null, null, 2500000L, null).orElseThrow());
+        assertEquals(12L, indice.versao().orElseThrow());
+
+        marcaDAgua(13);
+        when(veiculoRepository.findAlteracoes(12L, Long.MAX_VALUE, 13L, 1000)).thenReturn(List.of(
+                alterado(2, "Toyota", 2021, "Preto", "15000.00", 13, true),
+                alterado(3, "Fiat", 2020, "Branco", "12000.00", 13, false)));
+        indice.sincronizar();
+
+        assertArrayEquals(new long[]{1}, indice.buscar(null, null, "Preto", null, null).orElseThrow());
+        // O slot do removido é reaproveitado pelo novo veículo, com o preço antigo fora da faixa
+        assertArrayEquals(new long[]{3}, indice.buscar(null, null, null, null, 2000000L).orElseThrow());
+        assertArrayEquals(new long[]{}, indice.buscar("Toyota", null, null, null, null).orElseThrow());
+
+        // A busca não consulta o banco; só a carga e as duas sincronizações leem a marca d'água
+        verify(veiculoRepository, times(4)).findVersaoColecao();
+    }
+
+    @Test
+    void shouldApplyLocalWriteBeforeSearching() {
+        carregar(resumo(1, "Toyota", 2022, "Preto", "20000.00"));
+
+        // Escrita deste nó: a busca seguinte alcança o feed sem esperar a sincronização agendada
+        marcaDAgua(11);
+        when(veiculoRepository.findAlteracoes(10L, Long.MAX_VALUE, 11L, 1000)).thenReturn(List.of(
+                alterado(2, "Fiat", 2021, "Branco", "15000.00", 11, false)));
+        indice.aoAlterarVeiculo(new EventoVeiculo(TipoEvento.CRIADO,
+                resumo(2, "Fiat", 2021, "Branco", "15000.00"), Instant.now(), 11));
+
+        assertArrayEquals(new long[]{2}, indice.buscar("Fiat", null, null, null, null).orElseThrow());
+    }
+
+    @Test
+    void shouldNotServeLocalWriteBeforeWatermarkReachesIt() {
+        carregar(resumo(1, "Toyota", 2022, "Preto", "20000.00"));
+
+        // A escrita 12 já confirmou, mas a 11 (outro nó) segue aberta: a marca d'água fica em 10
+        indice.aoAlterarVeiculo(new EventoVeiculo(TipoEvento.CRIADO,
+                resumo(2, "Fiat", 2021, "Branco", "15000.00"), Instant.now(), 12));
+
+        assertTrue(indice.buscar("Fiat", null, null, null, null).isEmpty());
+        assertTrue(indice.versao().isEmpty());
+    }
+
+    @Test
+    void shouldRefuseSearchWhenSyncFallsBehind() throws InterruptedException {
+        indice = new IndiceVeiculos(veiculoRepository, 0);
+        carregar(resumo(1, "Toyota", 2022, "Preto", "20000.00"));
+        Thread.sleep(5);
+
+        // Sem sincronização dentro do atraso máximo, a busca e o ETag ficam com o banco
+        assertTrue(indice.buscar("Toyota", null, null, null, null).isEmpty());
+        assertTrue(indice.versao().isEmpty());
+    }
+
+    @Test
+    void shouldStayUnavailableWhenLoadFails() {
+        when(veiculoRepository.findVersaoColecao()).thenThrow(new IllegalStateException("banco fora"));
+
+        indice.recarregar();
+
+        assertFalse(indice.isPronto());
+        assertTrue(indice.buscar("Toyota", null, null, null, null).isEmpty());
+    }
+}
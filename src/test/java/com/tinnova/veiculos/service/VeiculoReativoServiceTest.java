@@ -0,0 +1,98 @@
+package com.tinnova.veiculos.service;
+
+import com.tinnova.veiculos.exception.ResourceNotFoundException;
+import com.tinnova.veiculos.model.VeiculoLeitura;
+import com.tinnova.veiculos.repository.ContagemMarca;
+import com.tinnova.veiculos.repository.reativo.VeiculoLeituraRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VeiculoReativoServiceTest {
+
+    @Mock
+    private VeiculoLeituraRepository repository;
+
+    @Mock
+    private R2dbcEntityTemplate template;
+
+    @Mock
+    private CambioService cambioService;
+
+    @InjectMocks
+    private VeiculoReativoService service;
+
+    private VeiculoLeitura leitura(long id) {
+        return new VeiculoLeitura(id, null, "Toyota", "Corolla", 2022, "Preto", "ABC1D23",
+                BigDecimal.valueOf(20000), 2000000L, false, null, null, false, 0L);
+    }
+
+    @Test
+    @DisplayName("Deve montar a página a partir do R2DBC sem consultar a cotação")
+    void shouldReturnPageFromR2dbc() {
+        Pageable pageable = PageRequest.of(0, 2);
+        when(repository.findByDeletedFalse(pageable))
+                .thenReturn(Flux.just(leitura(1L), leitura(2L)));
+        when(repository.countByDeletedFalse())
+                .thenReturn(Mono.just(5L));
+
+        StepVerifier.create(service.findVeiculos(pageable))
+                .assertNext(page -> {
+                    assertEquals(2, page.getContent().size());
+                    assertEquals(5, page.getTotalElements());
+                    assertEquals("Toyota", page.getContent().get(0).marca());
+                })
+                .verifyComplete();
+        verifyNoInteractions(cambioService);
+    }
+
+    @Test
+    @DisplayName("Deve sinalizar ResourceNotFoundException quando o veículo não existir")
+    void shouldErrorWhenVeiculoNotFound() {
+        when(repository.findByIdAndDeletedFalse(9L))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(service.findVeiculoById(9L))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Deve devolver o relatório por marca vindo do GROUP BY")
+    void shouldReturnCountByMarca() {
+        when(repository.countByMarca())
+                .thenReturn(Flux.just(new ContagemMarca("Toyota", 2L), new ContagemMarca("Honda", 1L)));
+
+        StepVerifier.create(service.getVeiculosCountByMarca())
+                .expectNext(Map.of("Toyota", 2L, "Honda", 1L))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Deve ignorar veículos sem marca no relatório por marca")
+    void shouldSkipRowsWithoutMarcaInCountByMarca() {
+        when(repository.countByMarca())
+                .thenReturn(Flux.just(new ContagemMarca("Toyota", 2L), new ContagemMarca(null, 3L)));
+
+        StepVerifier.create(service.getVeiculosCountByMarca())
+                .expectNext(Map.of("Toyota", 2L))
+                .verifyComplete();
+    }
+}
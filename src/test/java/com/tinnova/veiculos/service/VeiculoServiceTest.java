@@ -1,25 +1,57 @@
 package com.tinnova.veiculos.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinnova.veiculos.dto.AlteracaoVeiculo;
+import com.tinnova.veiculos.dto.ErroImportacao;
+import com.tinnova.veiculos.dto.EventoVeiculo;
+import com.tinnova.veiculos.dto.PaginaAlteracoes;
+import com.tinnova.veiculos.dto.PaginaCursor;
+import com.tinnova.veiculos.dto.ResultadoImportacao;
+import com.tinnova.veiculos.dto.TipoAlteracao;
+import com.tinnova.veiculos.dto.TipoEvento;
+import com.tinnova.veiculos.dto.VeiculoDetalhe;
+import com.tinnova.veiculos.dto.VeiculoResumo;
 import com.tinnova.veiculos.exception.ResourceNotFoundException;
+import com.tinnova.veiculos.exception.RequisicaoInvalidaException;
 import com.tinnova.veiculos.exception.ValidationException;
 import com.tinnova.veiculos.model.Veiculo;
+import com.tinnova.veiculos.repository.ContagemMarca;
 import com.tinnova.veiculos.repository.VeiculoRepository;
+import com.tinnova.veiculos.repository.VersaoColecao;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,6 +65,15 @@ class VeiculoServiceTest {
     @Mock
     private CambioService cambioService;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private VeiculoService veiculoService;
 
@@ -51,19 +92,51 @@ class VeiculoServiceTest {
         veiculo.setVendido(false);
     }
 
+    // O TransactionTemplate mockado só executa o lote, como uma transação que sempre confirma
+    private void executarLotes() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private VeiculoResumo resumo(Long id) {
+        return new VeiculoResumo(id, null, "Toyota", "Corolla", 2022, "Preto", "ABC1D23",
+                BigDecimal.valueOf(20000), false);
+    }
+
     @Test
     @DisplayName("Deve criar veículo com sucesso")
     void shouldCreateVeiculo() {
         when(veiculoRepository.existsByPlacaAndDeletedFalse("ABC1D23"))
                 .thenReturn(false);
-        when(veiculoRepository.save(veiculo))
+        when(veiculoRepository.registrarAlteracao())
+                .thenReturn(7L);
+        when(veiculoRepository.saveAndFlush(veiculo))
                 .thenReturn(veiculo);
 
         Veiculo saved = veiculoService.createVeiculo(veiculo);
 
         assertNotNull(saved);
         assertEquals("Toyota", saved.getMarca());
-        verify(veiculoRepository).save(veiculo);
+        assertEquals(7L, saved.getAlteracao());
+        verify(veiculoRepository).saveAndFlush(veiculo);
+    }
+
+    @Test
+    @DisplayName("Deve criar como veículo novo mesmo com id e versao no corpo")
+    void shouldIgnoreIdentityFieldsOnCreate() {
+        veiculo.setVersao(4L);
+        veiculo.setCreated(LocalDateTime.of(2024, 1, 1, 10, 0));
+        when(veiculoRepository.existsByPlacaAndDeletedFalse("ABC1D23"))
+                .thenReturn(false);
+        when(veiculoRepository.saveAndFlush(veiculo))
+                .thenReturn(veiculo);
+
+        veiculoService.createVeiculo(veiculo);
+
+        // Com id ou versao preenchidos o Spring Data faria merge em vez de persist
+        assertNull(veiculo.getId());
+        assertNull(veiculo.getVersao());
+        assertNull(veiculo.getCreated());
     }
 
     @Test
@@ -76,7 +149,20 @@ class VeiculoServiceTest {
                 veiculoService.createVeiculo(veiculo)
         );
 
-        verify(veiculoRepository, never()).save(any());
+        verify(veiculoRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Deve lançar ValidationException quando o índice único de placa barrar o insert")
+    void shouldThrowValidationExceptionOnUniquePlacaViolation() {
+        when(veiculoRepository.existsByPlacaAndDeletedFalse("ABC1D23"))
+                .thenReturn(false);
+        when(veiculoRepository.saveAndFlush(veiculo))
+                .thenThrow(new DataIntegrityViolationException("ux_veiculo_placa_ativa"));
+
+        assertThrows(ValidationException.class, () ->
+                veiculoService.createVeiculo(veiculo)
+        );
     }
 
     @Test
@@ -90,6 +176,18 @@ class VeiculoServiceTest {
         assertEquals(1L, found.getId());
     }
 
+    @Test
+    @DisplayName("Deve retornar o detalhe do veículo projetado direto da consulta")
+    void shouldFindVeiculoDetalheById() {
+        VeiculoDetalhe detalhe = new VeiculoDetalhe(1L, null, "Toyota", "Corolla", 2022, "Preto", "ABC1D23",
+                BigDecimal.valueOf(20000), false, null, null, 0L);
+        when(veiculoRepository.findDetalheById(1L))
+                .thenReturn(Optional.of(detalhe));
+
+        assertEquals(detalhe, veiculoService.findVeiculoDetalheById(1L));
+        verify(veiculoRepository, never()).findByIdAndDeletedFalse(any());
+    }
+
     @Test
     @DisplayName("Deve lançar ResourceNotFoundException quando veículo não existir")
     void shouldThrowResourceNotFoundException() {
@@ -119,42 +217,195 @@ class VeiculoServiceTest {
         assertTrue(result.isVendido());
     }
 
+    @Test
+    @DisplayName("Deve aplicar parcialmente apenas os campos enviados")
+    void shouldPatchOnlySuppliedFields() {
+        when(veiculoRepository.findByIdAndDeletedFalse(1L))
+                .thenReturn(Optional.of(veiculo));
+        when(veiculoRepository.save(veiculo))
+                .thenReturn(veiculo);
+
+        Veiculo result = veiculoService.patchVeiculo(1L, Map.of("vendido", true, "precoDolar", "21000.50"));
+
+        ArgumentCaptor<EventoVeiculo> evento = ArgumentCaptor.forClass(EventoVeiculo.class);
+        verify(eventPublisher).publishEvent(evento.capture());
+        assertEquals(TipoEvento.VENDIDO, evento.getValue().tipo());
+        assertTrue(result.isVendido());
+        assertEquals(new BigDecimal("21000.50"), result.getPrecoDolar());
+        assertEquals("Toyota", result.getMarca());
+        assertEquals("Corolla", result.getModelo());
+    }
+
+    @Test
+    @DisplayName("Deve recusar o PATCH quando a versão enviada não é a atual")
+    void shouldRejectPatchWithStaleVersion() {
+        veiculo.setVersao(3L);
+        when(veiculoRepository.findByIdAndDeletedFalse(1L))
+                .thenReturn(Optional.of(veiculo));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () ->
+                veiculoService.patchVeiculo(1L, Map.of("versao", 2, "vendido", true))
+        );
+        verify(veiculoRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Deve recusar no PATCH campos fora da lista de alteráveis")
+    void shouldRejectPatchOfNonEditableField() {
+        when(veiculoRepository.findByIdAndDeletedFalse(1L))
+                .thenReturn(Optional.of(veiculo));
+
+        assertThrows(ValidationException.class, () ->
+                veiculoService.patchVeiculo(1L, Map.of("placa", "XYZ9Z99"))
+        );
+        verify(veiculoRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("Deve deletar veículo logicamente")
     void shouldDeleteVeiculo() {
         when(veiculoRepository.findByIdAndDeletedFalse(1L))
                 .thenReturn(Optional.of(veiculo));
+        when(veiculoRepository.registrarAlteracao())
+                .thenReturn(8L);
+        when(veiculoRepository.save(veiculo))
+                .thenReturn(veiculo);
 
         veiculoService.deleteVeiculo(1L);
 
-        verify(veiculoRepository).deleteById(1L);
+        // Soft delete pelo UPDATE da entidade, com o número de alteração da transação
+        assertTrue(veiculo.isDeleted());
+        assertEquals(8L, veiculo.getAlteracao());
+        verify(veiculoRepository).save(veiculo);
+        verify(veiculoRepository, never()).deleteById(any());
     }
 
     @Test
     @DisplayName("Deve retornar veículos paginados")
     void shouldReturnPaginatedVeiculos() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Veiculo> page = new PageImpl<>(List.of(veiculo));
+        Page<VeiculoResumo> page = new PageImpl<>(List.of(resumo(1L)));
 
-        when(veiculoRepository.findAll(pageable))
+        when(veiculoRepository.findResumos(pageable))
                 .thenReturn(page);
 
-        Page<Veiculo> result =
+        Page<VeiculoResumo> result =
                 veiculoService.findVeiculosWithPaginationAndSorting(pageable);
 
         assertEquals(1, result.getTotalElements());
     }
 
+    @Test
+    @DisplayName("Deve paginar por cursor buscando uma linha a mais para saber se há próxima página")
+    void shouldReturnVeiculosAfterCursor() {
+        when(veiculoRepository.findResumosAfter(0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(resumo(1L), resumo(2L)));
+
+        PaginaCursor<VeiculoResumo> result = veiculoService.findVeiculosAfter(0L, 1, false);
+
+        assertEquals(List.of(resumo(1L)), result.content());
+        assertEquals(1L, result.nextCursor());
+        assertTrue(result.hasNext());
+    }
+
+    @Test
+    @DisplayName("Deve começar do maior id quando a paginação decrescente não tem cursor")
+    void shouldStartDescendingCursorFromTop() {
+        when(veiculoRepository.findResumosBefore(Long.MAX_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(List.of(resumo(9L), resumo(8L)));
+
+        PaginaCursor<VeiculoResumo> result = veiculoService.findVeiculosAfter(null, 2, true);
+
+        assertEquals(List.of(resumo(9L), resumo(8L)), result.content());
+        assertEquals(8L, result.nextCursor());
+        assertFalse(result.hasNext());
+    }
+
+    @Test
+    @DisplayName("Deve classificar o feed de alterações e devolver o cursor da última linha")
+    void shouldReturnChangesWithTypesAndCursor() {
+        veiculo.setVersao(0L);
+        veiculo.setAlteracao(11L);
+        Veiculo atualizado = new Veiculo();
+        atualizado.setId(2L);
+        atualizado.setVersao(3L);
+        atualizado.setAlteracao(12L);
+        Veiculo removido = new Veiculo();
+        removido.setId(3L);
+        removido.setVersao(1L);
+        removido.setDeleted(true);
+        removido.setAlteracao(12L);
+
+        when(veiculoRepository.findVersaoColecao())
+                .thenReturn(new VersaoColecao(12, null));
+        when(veiculoRepository.findAlteracoes(10L, 0L, 12L, 3))
+                .thenReturn(List.of(veiculo, atualizado, removido));
+
+        PaginaAlteracoes result = veiculoService.findAlteracoes(10L, 0L, 2);
+
+        assertEquals(List.of(TipoAlteracao.CRIADO, TipoAlteracao.ATUALIZADO),
+                result.content().stream().map(AlteracaoVeiculo::tipo).toList());
+        assertEquals(12L, result.nextSince());
+        assertEquals(2L, result.nextAfterId());
+        assertTrue(result.hasNext());
+    }
+
     @Test
     @DisplayName("Deve retornar quantidade de veículos por marca")
     void shouldReturnVeiculosCountByMarca() {
-        when(veiculoRepository.findAll())
-                .thenReturn(List.of(veiculo));
+        when(veiculoRepository.countByMarca())
+                .thenReturn(List.of(new ContagemMarca("Toyota", 1L)));
 
         Map<String, Long> result =
                 veiculoService.getVeiculosCountByMarca();
 
         assertEquals(1L, result.get("Toyota"));
+        verify(veiculoRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Deve ajustar a contagem por marca nas escritas sem refazer o GROUP BY")
+    void shouldApplyBrandDeltasWithoutRegrouping() {
+        when(veiculoRepository.countByMarca())
+                .thenReturn(List.of(new ContagemMarca("Toyota", 1L)));
+        assertEquals(Map.of("Toyota", 1L), veiculoService.getVeiculosCountByMarca());
+
+        Veiculo honda = new Veiculo();
+        honda.setMarca("Honda");
+        honda.setPlaca("XYZ9K88");
+        when(veiculoRepository.saveAndFlush(honda)).thenReturn(honda);
+        veiculoService.createVeiculo(honda);
+        assertEquals(Map.of("Toyota", 1L, "Honda", 1L), veiculoService.getVeiculosCountByMarca());
+
+        // Troca de marca: sai de uma e entra na outra
+        when(veiculoRepository.findByIdAndDeletedFalse(1L)).thenReturn(Optional.of(veiculo));
+        when(veiculoRepository.save(veiculo)).thenReturn(veiculo);
+        veiculoService.patchVeiculo(1L, Map.of("marca", "Honda"));
+        assertEquals(Map.of("Honda", 2L), veiculoService.getVeiculosCountByMarca());
+
+        veiculoService.deleteVeiculo(1L);
+        assertEquals(Map.of("Honda", 1L), veiculoService.getVeiculosCountByMarca());
+
+        verify(veiculoRepository, times(1)).countByMarca();
+    }
+
+    @Test
+    @DisplayName("Deve refazer a contagem por marca na reconciliação")
+    void shouldReconcileVeiculosCountByMarca() {
+        when(veiculoRepository.countByMarca())
+                .thenReturn(List.of(new ContagemMarca("Toyota", 1L)))
+                .thenReturn(List.of(new ContagemMarca("Toyota", 1L), new ContagemMarca("Honda", 1L)));
+
+        // Sem leitura anterior, a reconciliação não consulta o banco
+        veiculoService.reconciliarContagemPorMarca();
+        verify(veiculoRepository, never()).countByMarca();
+
+        assertEquals(Map.of("Toyota", 1L), veiculoService.getVeiculosCountByMarca());
+
+        // Escrita de outro nó só aparece depois da reconciliação
+        veiculoService.reconciliarContagemPorMarca();
+        assertEquals(Map.of("Toyota", 1L, "Honda", 1L), veiculoService.getVeiculosCountByMarca());
+        verify(veiculoRepository, times(2)).countByMarca();
     }
 
     @Test
@@ -163,21 +414,192 @@ class VeiculoServiceTest {
         when(cambioService.getCotacaoDolarBRL())
                 .thenReturn(BigDecimal.valueOf(5));
 
-        when(veiculoRepository.findAll(any(org.springframework.data.jpa.domain.Specification.class)))
-                .thenReturn(List.of(veiculo));
+        Pageable pageable = PageRequest.of(0, 10);
+        when(veiculoRepository.findResumos(any(org.springframework.data.jpa.domain.Specification.class), eq(pageable), eq(true)))
+                .thenReturn(new PageImpl<>(List.of(resumo(1L)), pageable, 1));
 
-        List<Veiculo> result =
+        Slice<VeiculoResumo> result =
                 veiculoService.searchVeiculos(
                         "Toyota",
                         2022,
                         "Preto",
                         BigDecimal.valueOf(100000),
-                        BigDecimal.valueOf(150000)
+                        BigDecimal.valueOf(150000),
+                        pageable,
+                        true
                 );
 
         assertFalse(result.isEmpty());
-        verify(veiculoRepository)
-                .findAll(any(org.springframework.data.jpa.domain.Specification.class));
+        assertInstanceOf(Page.class, result);
     }
 
+    @Test
+    @DisplayName("Não deve consultar a cotação quando a busca não filtra por preço")
+    void shouldNotFetchCotacaoWithoutPriceFilter() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(veiculoRepository.findResumos(any(), eq(pageable), eq(false)))
+                .thenReturn(new SliceImpl<>(List.of(resumo(1L)), pageable, false));
+
+        Slice<VeiculoResumo> result =
+                veiculoService.searchVeiculosAsync("Toyota", null, null, null, null, pageable, false).block();
+
+        assertEquals(List.of(resumo(1L)), result.getContent());
+        verifyNoInteractions(cambioService);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar com 400 filtro de preço fora do intervalo suportado")
+    void shouldRejectOutOfRangePriceFilter() {
+        when(cambioService.getCotacaoDolarBRL())
+                .thenReturn(BigDecimal.valueOf(5));
+
+        assertThrows(RequisicaoInvalidaException.class, () ->
+                veiculoService.searchVeiculos(null, null, null, new BigDecimal("1e20"), null, PageRequest.of(0, 10), false));
+    }
+
+    @Test
+    @DisplayName("Deve incluir a cotação na versão da busca só quando há filtro de preço")
+    void shouldIncludeCotacaoInSearchVersionOnlyWithPriceFilter() {
+        when(veiculoRepository.findVersaoColecao())
+                .thenReturn(new VersaoColecao(35, null));
+        when(cambioService.getCotacaoDolarBRLAsync())
+                .thenReturn(Mono.just(new BigDecimal("5.25")));
+
+        assertEquals("35", veiculoService.versaoBusca(null, null).block());
+        assertEquals("35-5.25", veiculoService.versaoBusca(BigDecimal.ONE, null).block());
+    }
+
+    @Test
+    @DisplayName("Deve importar CSV em lote reportando erros por linha")
+    void shouldImportCsvReportingRowErrors() {
+        String csv = """
+                marca,modelo,ano,cor,placa,precoDolar,vendido
+                Toyota,Corolla,2022,Preto,AAA1A11,20000,false
+                Honda,Civic,ano-invalido,Prata,BBB2B22,18000,false
+                Honda,Fit,2020,Azul,AAA1A11,15000,false
+                Fiat,Uno,2015,Branco,CCC3C33,5000,true
+                Ford,Ka,2019,Branco,,7000,false
+                """;
+
+        when(veiculoRepository.findPlacasExistentes(List.of("AAA1A11", "CCC3C33")))
+                .thenReturn(List.of("CCC3C33"));
+        executarLotes();
+
+        ResultadoImportacao result = veiculoService.importarVeiculos(
+                VeiculoCsv.ler(new BufferedReader(new StringReader(csv))));
+
+        assertEquals(5, result.total());
+        assertEquals(1, result.importados());
+        assertEquals(List.of(2, 3, 4, 5), result.erros().stream().map(ErroImportacao::linha).sorted().toList());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Veiculo>> salvos = ArgumentCaptor.forClass(List.class);
+        verify(veiculoRepository).saveAll(salvos.capture());
+        assertEquals(List.of("AAA1A11"), salvos.getValue().stream().map(Veiculo::getPlaca).toList());
+        assertNull(salvos.getValue().get(0).getVersao());
+        verify(veiculoRepository, never()).existsByPlacaAndDeletedFalse(any());
+        verify(veiculoRepository).flush();
+    }
+
+    @Test
+    @DisplayName("Deve importar lista JSON em streaming reportando erros por elemento")
+    void shouldImportJsonReportingElementErrors() throws Exception {
+        String json = """
+                [
+                  {"marca": "Toyota", "modelo": "Corolla", "ano": 2022, "placa": "AAA1A11", "precoDolar": 20000},
+                  {"marca": "Honda", "modelo": "Civic", "ano": "ano-invalido", "placa": "BBB2B22"},
+                  {"marca": "Fiat", "modelo": "Uno", "ano": 2015, "placa": "CCC3C33", "precoDolar": 5000},
+                  {"marca": "Ford", "modelo": "Ka", "ano": 2019
+                """;
+
+        when(veiculoRepository.findPlacasExistentes(List.of("AAA1A11", "CCC3C33")))
+                .thenReturn(List.of());
+        executarLotes();
+
+        ResultadoImportacao result = veiculoService.importarVeiculos(VeiculoJson.ler(new ObjectMapper(),
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+
+        // O elemento com ano inválido é pulado; o JSON truncado encerra a leitura com um erro
+        assertEquals(2, result.importados());
+        assertEquals(List.of(2, 4), result.erros().stream().map(ErroImportacao::linha).sorted().toList());
+    }
+
+    @Test
+    @DisplayName("Deve recusar importação JSON que não é uma lista")
+    void shouldRejectJsonImportThatIsNotAList() {
+        assertThrows(RequisicaoInvalidaException.class, () -> VeiculoJson.ler(new ObjectMapper(),
+                new ByteArrayInputStream("{\"placa\": \"AAA1A11\"}".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    @DisplayName("Deve refazer registro a registro só o lote que violou o índice único de placa")
+    void shouldRetryFailedImportBatchRecordByRecord() {
+        Veiculo primeiro = new Veiculo();
+        primeiro.setPlaca("AAA1A11");
+        Veiculo segundo = new Veiculo();
+        segundo.setPlaca("BBB2B22");
+        executarLotes();
+        // Lote inteiro falha; depois o primeiro registro grava e o segundo esbarra na placa gravada por outro
+        doThrow(new DataIntegrityViolationException("ux_veiculo_placa_ativa"))
+                .doNothing()
+                .doThrow(new DataIntegrityViolationException("ux_veiculo_placa_ativa"))
+                .when(veiculoRepository).flush();
+
+        ResultadoImportacao result = veiculoService.importarVeiculos(List.of(primeiro, segundo).iterator());
+
+        assertEquals(2, result.total());
+        assertEquals(1, result.importados());
+        assertEquals(List.of(new ErroImportacao(2, "BBB2B22", "Veículo com a placa BBB2B22 já existe.")), result.erros());
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+
+    @Test
+    @DisplayName("Deve reler o CSV exportado com quebra de linha dentro de um campo entre aspas")
+    void shouldRoundTripCsvWithLineBreakInQuotedField() throws Exception {
+        veiculo.setModelo("Corolla\nXEi \"Dynamic\"");
+        when(veiculoRepository.streamAll())
+                .thenReturn(Stream.of(veiculo));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        veiculoService.exportarVeiculos(FormatoExportacao.CSV, saida);
+
+        Iterator<Veiculo> lidos = VeiculoCsv.ler(new BufferedReader(new StringReader(saida.toString(StandardCharsets.UTF_8))));
+        Veiculo lido = lidos.next();
+        assertEquals("Corolla\nXEi \"Dynamic\"", lido.getModelo());
+        assertEquals("ABC1D23", lido.getPlaca());
+        assertFalse(lidos.hasNext());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar só o registro com aspas sem fechamento no fim do CSV")
+    void shouldRejectUnterminatedQuotedField() {
+        String csv = """
+                marca,modelo,placa
+                Toyota,Corolla,AAA1A11
+                Honda,"Civic,BBB2B22
+                """;
+
+        Iterator<Veiculo> lidos = VeiculoCsv.ler(new BufferedReader(new StringReader(csv)));
+
+        assertEquals("AAA1A11", lidos.next().getPlaca());
+        assertThrows(ValidationException.class, lidos::hasNext);
+        assertFalse(lidos.hasNext());
+    }
+
+    @Test
+    @DisplayName("Deve exportar CSV em streaming descartando cada entidade do contexto")
+    void shouldExportCsvStreaming() throws Exception {
+        veiculo.setModelo("Corolla, XEi");
+        when(veiculoRepository.streamAll())
+                .thenReturn(Stream.of(veiculo));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        veiculoService.exportarVeiculos(FormatoExportacao.CSV, saida);
+
+        assertEquals("""
+                id,veiculo,marca,modelo,ano,cor,placa,precoDolar,vendido
+                1,,Toyota,"Corolla, XEi",2022,Preto,ABC1D23,20000,false
+                """, saida.toString(StandardCharsets.UTF_8));
+        verify(entityManager).detach(veiculo);
+    }
 }